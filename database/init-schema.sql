@@ -49,6 +49,8 @@ CREATE INDEX idx_catalog_products_category ON catalog_service.products(category)
 CREATE INDEX idx_catalog_products_brand ON catalog_service.products(brand);
 CREATE INDEX idx_catalog_products_active ON catalog_service.products(is_active);
 CREATE INDEX idx_catalog_products_sku ON catalog_service.products(sku);
+-- Order service catalog snapshot polls for products changed since its watermark
+CREATE INDEX idx_catalog_products_updated_at ON catalog_service.products(updated_at);
 
 -- =============================================
 -- CART SERVICE SCHEMA
@@ -84,6 +86,7 @@ CREATE TABLE order_service.orders (
     saga_state VARCHAR(50) DEFAULT 'orchestrating' CHECK (saga_state IN ('orchestrating', 'compensating', 'completed', 'failed')),
     shipping_address JSONB,
     billing_address JSONB,
+    version BIGINT NOT NULL DEFAULT 0, -- bumped by trigger on every update, used for ETags
     created_at TIMESTAMP DEFAULT NOW(),
     updated_at TIMESTAMP DEFAULT NOW()
 );
@@ -99,11 +102,52 @@ CREATE TABLE order_service.order_items (
     created_at TIMESTAMP DEFAULT NOW()
 );
 
-CREATE INDEX idx_orders_user_id ON order_service.orders(user_id);
+-- Serves per-user lookups, newest first, and the user order summary without heap access
+CREATE INDEX idx_orders_user_created ON order_service.orders(user_id, created_at DESC) INCLUDE (status, total_amount, version, updated_at);
 CREATE INDEX idx_orders_status ON order_service.orders(status);
+CREATE INDEX idx_orders_id_status ON order_service.orders(id) INCLUDE (status, user_id); -- index-only order lookups from item pages
 CREATE INDEX idx_orders_saga_state ON order_service.orders(saga_state);
 CREATE INDEX idx_order_items_order_id ON order_service.order_items(order_id);
-CREATE INDEX idx_order_items_product_id ON order_service.order_items(product_id);
+-- Orders-by-product pages: the keyset and line columns, so a page is an index-only range scan
+CREATE INDEX idx_order_items_product_created ON order_service.order_items(product_id, created_at DESC, order_id DESC, id DESC) INCLUDE (quantity, unit_price);
+
+-- Revenue per minute/hour/day and order status, bucketed by order creation time.
+-- Maintained incrementally when orders reach a terminal status; amounts are exact cents.
+-- Each bucket is spread over several shards to avoid a single hot row per bucket.
+CREATE TABLE order_service.revenue_rollups (
+    granularity VARCHAR(10) NOT NULL CHECK (granularity IN ('minute', 'hour', 'day')),
+    status VARCHAR(50) NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    shard SMALLINT NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    amount_cents BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (granularity, status, bucket_start, shard)
+);
+
+-- Committed chunks of historical order imports, so an interrupted import resumes where it stopped
+CREATE TABLE order_service.order_import_chunks (
+    import_id VARCHAR(100) NOT NULL,
+    chunk_no INTEGER NOT NULL,
+    chunk_size INTEGER NOT NULL,
+    orders_imported INTEGER NOT NULL,
+    items_imported INTEGER NOT NULL,
+    rejected INTEGER NOT NULL,
+    completed_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (import_id, chunk_no)
+);
+
+-- Saga partitions are owned by one order-service replica at a time through a lease
+CREATE TABLE order_service.saga_partition_leases (
+    partition_no INTEGER PRIMARY KEY,
+    owner VARCHAR(100),
+    lease_expires_at TIMESTAMP,
+    epoch BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE order_service.saga_nodes (
+    node_id VARCHAR(100) PRIMARY KEY,
+    heartbeat_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
 
 -- =============================================
 -- INVENTORY SERVICE SCHEMA
@@ -131,6 +175,8 @@ CREATE TABLE inventory_service.reservations (
 
 CREATE INDEX idx_inventory_product_id ON inventory_service.inventory(product_id);
 CREATE INDEX idx_inventory_available ON inventory_service.inventory(available_quantity);
+-- Order service inventory near-cache polls for stock changed since its watermark
+CREATE INDEX idx_inventory_updated_at ON inventory_service.inventory(updated_at);
 CREATE INDEX idx_reservations_order_id ON inventory_service.reservations(order_id);
 CREATE INDEX idx_reservations_product_id ON inventory_service.reservations(product_id);
 CREATE INDEX idx_reservations_status ON inventory_service.reservations(status);
@@ -191,12 +237,21 @@ BEGIN
 END;
 $$ language 'plpgsql';
 
+CREATE OR REPLACE FUNCTION bump_version_column()
+RETURNS TRIGGER AS $$
+BEGIN
+    NEW.version = OLD.version + 1;
+    RETURN NEW;
+END;
+$$ language 'plpgsql';
+
 -- Apply updated_at triggers to all tables
 CREATE TRIGGER update_auth_users_updated_at BEFORE UPDATE ON auth_service.users FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 CREATE TRIGGER update_catalog_products_updated_at BEFORE UPDATE ON catalog_service.products FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 CREATE TRIGGER update_cart_carts_updated_at BEFORE UPDATE ON cart_service.carts FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 CREATE TRIGGER update_cart_items_updated_at BEFORE UPDATE ON cart_service.cart_items FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 CREATE TRIGGER update_orders_updated_at BEFORE UPDATE ON order_service.orders FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
+CREATE TRIGGER bump_orders_version BEFORE UPDATE ON order_service.orders FOR EACH ROW EXECUTE FUNCTION bump_version_column();
 CREATE TRIGGER update_inventory_updated_at BEFORE UPDATE ON inventory_service.inventory FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 CREATE TRIGGER update_reservations_updated_at BEFORE UPDATE ON inventory_service.reservations FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
 CREATE TRIGGER update_payments_updated_at BEFORE UPDATE ON payment_service.transactions FOR EACH ROW EXECUTE FUNCTION update_updated_at_column();
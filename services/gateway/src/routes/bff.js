@@ -41,13 +41,19 @@ router.get('/dashboard', async (req, res) => {
       callService(`${CART_SERVICE_URL}/api/cart`, {
         headers: { 'X-User-ID': userId }
       }),
-      callService(`${ORDER_SERVICE_URL}/api/orders/user/${userId}`),
+      callService(`${ORDER_SERVICE_URL}/api/orders/user/${userId}/summary?recent=5`),
       callService(`${NOTIFICATION_SERVICE_URL}/api/notify/user/${userId}?per_page=5`)
     ]);
 
+    const orderSummary = orderData.status === 'fulfilled' ? orderData.value : null;
     const dashboard = {
       cart: cartData.status === 'fulfilled' ? cartData.value : null,
-      recentOrders: orderData.status === 'fulfilled' ? orderData.value : [],
+      recentOrders: orderSummary ? orderSummary.recentOrders : [],
+      orderStats: orderSummary ? {
+        orderCount: orderSummary.orderCount,
+        lifetimeSpend: orderSummary.lifetimeSpend,
+        countsByStatus: orderSummary.countsByStatus
+      } : null,
       notifications: notificationData.status === 'fulfilled' ? notificationData.value.notifications : [],
       timestamp: new Date().toISOString()
     };
@@ -208,13 +214,13 @@ router.get('/profile', async (req, res) => {
       callService(`${AUTH_SERVICE_URL}/api/auth/profile`, {
         headers: { 'Authorization': req.headers.authorization }
       }),
-      callService(`${ORDER_SERVICE_URL}/api/orders/user/${userId}?limit=5`),
+      callService(`${ORDER_SERVICE_URL}/api/orders/user/${userId}/summary?recent=5`),
       callService(`${NOTIFICATION_SERVICE_URL}/api/notify/user/${userId}?per_page=5`)
     ]);
 
     const profile = {
       user: profileData.status === 'fulfilled' ? profileData.value.user : null,
-      recentOrders: orderData.status === 'fulfilled' ? orderData.value : [],
+      recentOrders: orderData.status === 'fulfilled' ? orderData.value.recentOrders : [],
       notifications: notificationData.status === 'fulfilled' ? notificationData.value.notifications : [],
       timestamp: new Date().toISOString()
     };
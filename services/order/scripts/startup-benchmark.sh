@@ -0,0 +1,56 @@
+#!/bin/sh
+# Measure time-to-first-request and resident memory of order-service start commands.
+#
+# Usage: scripts/startup-benchmark.sh [runs] -- <label>=<command> [<label>=<command> ...]
+#
+#   scripts/startup-benchmark.sh 5 -- \
+#     "jar=java -jar target/order-service-1.0.0.jar" \
+#     "aot-cds=java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true -jar aot/order-service-1.0.0.jar"
+#
+# Each command is started RUNS times against the configured database. Time to first
+# request is measured from process start until GET /api/orders/health answers 200.
+# RSS is read from /proc right after that first request. Medians are reported.
+
+set -eu
+
+RUNS=${1:-5}
+shift
+[ "${1:-}" = "--" ] && shift
+PORT=${BENCHMARK_PORT:-18090}
+URL="http://localhost:${PORT}/api/orders/health"
+
+now_ms() {
+    date +%s%3N
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : int((v[NR / 2] + v[NR / 2 + 1]) / 2) }'
+}
+
+printf '%-12s %8s %10s %10s\n' "variant" "runs" "ttfr_ms" "rss_mb"
+for variant in "$@"; do
+    label=${variant%%=*}
+    command=${variant#*=}
+    ttfr_file=$(mktemp)
+    rss_file=$(mktemp)
+
+    for run in $(seq 1 "$RUNS"); do
+        start=$(now_ms)
+        $command --server.port="$PORT" > "/tmp/startup-benchmark-${label}.log" 2>&1 &
+        pid=$!
+        until curl -sf "$URL" > /dev/null 2>&1; do
+            if ! kill -0 "$pid" 2> /dev/null; then
+                echo "$label exited before answering, see /tmp/startup-benchmark-${label}.log" >&2
+                exit 1
+            fi
+            sleep 0.05
+        done
+        echo $(( $(now_ms) - start )) >> "$ttfr_file"
+        awk '/VmRSS/ { print int($2 / 1024) }' "/proc/$pid/status" >> "$rss_file"
+        kill "$pid"
+        wait "$pid" 2> /dev/null || true
+    done
+
+    printf '%-12s %8s %10s %10s\n' "$label" "$RUNS" "$(median < "$ttfr_file")" "$(median < "$rss_file")"
+    rm -f "$ttfr_file" "$rss_file"
+done
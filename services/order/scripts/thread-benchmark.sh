@@ -0,0 +1,78 @@
+#!/bin/sh
+# Compare throughput and latency of order-service start commands under concurrent load,
+# typically the same jar with platform and with virtual threads.
+#
+# Usage: scripts/thread-benchmark.sh [requests] [concurrency] -- <label>=<command> [<label>=<command> ...]
+#
+#   scripts/thread-benchmark.sh 2000 200 -- \
+#     "platform=java -jar target/order-service-1.0.0.jar" \
+#     "virtual=java -jar target/order-service-1.0.0.jar --spring.profiles.active=virtual-threads"
+#
+# Virtual threads need the jar built with -Pjava21 and run on Java 21. Each command is
+# started once against the configured database. REQUESTS orders are created with
+# CONCURRENCY requests in flight (create path), then each created order is read back
+# by id the same way (read path). Set PRODUCT_ID to a product the catalog and
+# inventory checks accept. Throughput and p50/p99 latency are reported per path; ok
+# counts 2xx answers, so requests shed by admission control (429) show as the gap.
+
+set -eu
+
+REQUESTS=${1:-2000}
+CONCURRENCY=${2:-200}
+shift 2 || shift $#
+[ "${1:-}" = "--" ] && shift
+PORT=${BENCHMARK_PORT:-18090}
+BASE="http://localhost:${PORT}/api/orders"
+USER_ID=${USER_ID:-11111111-1111-1111-1111-111111111111}
+PRODUCT_ID=${PRODUCT_ID:-22222222-2222-2222-2222-222222222222}
+BODY="{\"user_id\":\"$USER_ID\",\"totalAmount\":20.10,\"shipping_address\":\"benchmark\",\"billing_address\":\"benchmark\",\"items\":[{\"product_id\":\"$PRODUCT_ID\",\"product_name\":\"benchmark\",\"quantity\":2,\"unit_price\":10.05}]}"
+
+now_ms() {
+    date +%s%3N
+}
+
+# Reads "<http status> <seconds>" lines and prints the row of LABEL and PATH for a run of ELAPSED ms
+report() {
+    sort -k2 -n | awk -v label="$1" -v path="$2" -v elapsed="$3" '
+        $1 ~ /^2/ { ok++ }
+        { ms[NR] = $2 * 1000 }
+        END {
+            printf "%-12s %-8s %8d %8d %8d %8d\n", label, path, ok, NR * 1000 / elapsed,
+                ms[int((NR - 1) * 0.5) + 1], ms[int((NR - 1) * 0.99) + 1]
+        }'
+}
+
+printf '%-12s %-8s %8s %8s %8s %8s\n' "variant" "path" "ok" "rps" "p50_ms" "p99_ms"
+for variant in "$@"; do
+    label=${variant%%=*}
+    command=${variant#*=}
+    ids=$(mktemp)
+    timings=$(mktemp)
+
+    $command --server.port="$PORT" > "/tmp/thread-benchmark-${label}.log" 2>&1 &
+    pid=$!
+    until curl -sf "$BASE/health" > /dev/null 2>&1; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$label exited before answering, see /tmp/thread-benchmark-${label}.log" >&2
+            exit 1
+        fi
+        sleep 0.1
+    done
+
+    start=$(now_ms)
+    seq 1 "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+        curl -s -o "$ids.{}" -w '%{http_code} %{time_total}\n' -XPOST "$BASE" \
+            -H 'Content-Type: application/json' -d "$BODY" > "$timings"
+    report "$label" create $(( $(now_ms) - start )) < "$timings"
+    grep -ho '^{"id":"[^"]*"' "$ids".* | cut -d'"' -f4 > "$ids"
+    rm -f "$ids".*
+
+    start=$(now_ms)
+    xargs -P "$CONCURRENCY" -I{} curl -s -o /dev/null -w '%{http_code} %{time_total}\n' "$BASE/{}" \
+        < "$ids" > "$timings"
+    report "$label" read $(( $(now_ms) - start )) < "$timings"
+
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    rm -f "$ids" "$timings"
+done
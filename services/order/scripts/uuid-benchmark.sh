@@ -0,0 +1,74 @@
+#!/bin/sh
+# Compare random (v4) and time-ordered (v7) UUID primary keys on insert throughput,
+# index size and WAL volume, in tables shaped like orders and order_items.
+#
+# Usage: scripts/uuid-benchmark.sh [orders] [batch]
+#
+#   PGHOST=localhost PGUSER=postgres PGDATABASE=mini_commerce scripts/uuid-benchmark.sh 10000000 10000
+#
+# Connects with psql and the usual PG* environment variables. In a scratch schema,
+# uuid_benchmark, each version gets an orders table and an order_items table with
+# a primary key and an order_id index, like order_service. ORDERS orders with one
+# item each are inserted BATCH per transaction, ids generated by the database for
+# both versions. The differences show once the indexes outgrow shared_buffers,
+# which is why the default is 10 million. The schema is dropped afterwards.
+
+set -eu
+
+ORDERS=${1:-10000000}
+BATCH=${2:-10000}
+BATCHES=$(( (ORDERS + BATCH - 1) / BATCH ))
+
+now_ms() {
+    date +%s%3N
+}
+
+sql() {
+    psql -X -q -A -t -v ON_ERROR_STOP=1 -c "$1"
+}
+
+size_mb() {
+    sql "SELECT pg_relation_size('uuid_benchmark.$1') / 1048576"
+}
+
+sql "DROP SCHEMA IF EXISTS uuid_benchmark CASCADE"
+sql "CREATE SCHEMA uuid_benchmark"
+# UUIDv7 from a v4: the first 48 bits replaced by the Unix time in milliseconds, version bits set to 7
+sql "CREATE FUNCTION uuid_benchmark.uuid_v7() RETURNS uuid LANGUAGE sql VOLATILE AS \$\$
+    SELECT encode(set_bit(set_bit(overlay(uuid_send(gen_random_uuid())
+        PLACING substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::bigint) FROM 3)
+        FROM 1 FOR 6), 52, 1), 53, 1), 'hex')::uuid
+\$\$"
+
+printf '%-8s %10s %10s %12s %12s %12s %8s\n' \
+    "version" "orders" "orders/s" "orders_pk_mb" "items_pk_mb" "order_id_mb" "wal_mb"
+for version in v4 v7; do
+    case $version in
+        v4) generate="gen_random_uuid()" ;;
+        v7) generate="uuid_benchmark.uuid_v7()" ;;
+    esac
+    sql "CREATE TABLE uuid_benchmark.orders_$version (
+             id UUID PRIMARY KEY, created_at TIMESTAMP NOT NULL DEFAULT NOW())"
+    sql "CREATE TABLE uuid_benchmark.order_items_$version (
+             id UUID PRIMARY KEY, order_id UUID NOT NULL, quantity INTEGER NOT NULL)"
+    sql "CREATE INDEX order_items_${version}_order_id ON uuid_benchmark.order_items_$version (order_id)"
+    sql "CHECKPOINT"
+
+    wal_start=$(sql "SELECT pg_current_wal_lsn()")
+    start=$(now_ms)
+    for batch in $(seq 1 "$BATCHES"); do
+        echo "WITH orders AS (
+                  INSERT INTO uuid_benchmark.orders_$version (id)
+                  SELECT $generate FROM generate_series(1, $BATCH) RETURNING id)
+              INSERT INTO uuid_benchmark.order_items_$version (id, order_id, quantity)
+              SELECT $generate, id, 1 FROM orders;"
+    done | psql -X -q -v ON_ERROR_STOP=1 > /dev/null
+    elapsed=$(( $(now_ms) - start ))
+    wal_mb=$(sql "SELECT pg_wal_lsn_diff(pg_current_wal_lsn(), '$wal_start') / 1048576")
+
+    printf '%-8s %10s %10s %12s %12s %12s %8s\n' "$version" "$(( BATCHES * BATCH ))" \
+        "$(( BATCHES * BATCH * 1000 / elapsed ))" "$(size_mb "orders_${version}_pkey")" \
+        "$(size_mb "order_items_${version}_pkey")" "$(size_mb "order_items_${version}_order_id")" "${wal_mb%.*}"
+done
+
+sql "DROP SCHEMA uuid_benchmark CASCADE"
@@ -1,7 +1,17 @@
 package com.minicommerce.order;
 
+import com.minicommerce.order.service.AdmissionGate;
+import com.minicommerce.order.service.CatalogSnapshotService;
+import com.minicommerce.order.service.InventoryAvailabilityCache;
+import com.minicommerce.order.service.OrderProgressHub;
+import com.minicommerce.order.service.SagaOrchestrator;
+import com.minicommerce.order.service.SagaPartitionManager;
+import com.minicommerce.order.service.TrendingProductsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -13,4 +23,16 @@ public class OrderApplication {
     public static void main(String[] args) {
         SpringApplication.run(OrderApplication.class, args);
     }
+
+    /**
+     * Beans kept eager under the "lazy" profile: scheduled work would not start
+     * until first use, and the first request should not pay for the JPA bootstrap
+     */
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+            EntityManagerFactory.class, AdmissionGate.class, OrderProgressHub.class, TrendingProductsService.class,
+            SagaPartitionManager.class, SagaOrchestrator.class, CatalogSnapshotService.class,
+            InventoryAvailabilityCache.class);
+    }
 }
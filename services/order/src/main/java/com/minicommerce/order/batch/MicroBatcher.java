@@ -0,0 +1,188 @@
+package com.minicommerce.order.batch;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces individual requests submitted by concurrent callers into bulk calls.
+ *
+ * A batch is dispatched when it reaches {@code maxBatchSize} or when {@code window}
+ * has elapsed since its first request, whichever comes first. The bulk call must
+ * return exactly one result per request, in request order.
+ */
+public class MicroBatcher<T, R> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(MicroBatcher.class);
+
+    private final String name;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Function<List<T>, Mono<List<R>>> bulkCall;
+    private final ScheduledExecutorService scheduler;
+
+    private final DistributionSummary batchSize;
+    private final DistributionSummary batchFill;
+    private final Timer addedLatency;
+
+    private final Object lock = new Object();
+    private List<Pending<T, R>> pending = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public MicroBatcher(String name, long windowMillis, int maxBatchSize,
+                        Function<List<T>, Mono<List<R>>> bulkCall, MeterRegistry meterRegistry) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.name = name;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(windowMillis, 0));
+        this.maxBatchSize = maxBatchSize;
+        this.bulkCall = bulkCall;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-batch-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.batchSize = DistributionSummary.builder("order.batch.size")
+            .description("Requests per dispatched bulk call")
+            .tag("batcher", name)
+            .register(meterRegistry);
+        this.batchFill = DistributionSummary.builder("order.batch.fill")
+            .description("Batch size as a fraction of the configured maximum")
+            .tag("batcher", name)
+            .register(meterRegistry);
+        this.addedLatency = Timer.builder("order.batch.wait")
+            .description("Time a request spent queued before its batch was dispatched")
+            .tag("batcher", name)
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Queue a request for the next batch. The returned Mono completes with this
+     * request's own result once the bulk call returns.
+     */
+    public Mono<R> submit(T request) {
+        return Mono.defer(() -> {
+            CompletableFuture<R> result = new CompletableFuture<>();
+            enqueue(new Pending<>(request, result, System.nanoTime()));
+            return Mono.fromFuture(result);
+        });
+    }
+
+    private void enqueue(Pending<T, R> request) {
+        List<Pending<T, R>> full = null;
+        synchronized (lock) {
+            pending.add(request);
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flushOnTimer, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (full != null) {
+            dispatch(full);
+        }
+    }
+
+    private void flushOnTimer() {
+        List<Pending<T, R>> batch;
+        synchronized (lock) {
+            batch = takePending();
+        }
+        dispatch(batch);
+    }
+
+    // Must be called while holding the lock
+    private List<Pending<T, R>> takePending() {
+        List<Pending<T, R>> batch = pending;
+        pending = new ArrayList<>(maxBatchSize);
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(List<Pending<T, R>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        List<T> requests = new ArrayList<>(batch.size());
+        for (Pending<T, R> item : batch) {
+            requests.add(item.request);
+            addedLatency.record(now - item.enqueuedAt, TimeUnit.NANOSECONDS);
+        }
+        batchSize.record(batch.size());
+        batchFill.record((double) batch.size() / maxBatchSize);
+
+        Mono<List<R>> call;
+        try {
+            call = bulkCall.apply(requests);
+        } catch (RuntimeException e) {
+            call = Mono.error(e);
+        }
+
+        call.subscribe(
+            results -> complete(batch, results),
+            error -> fail(batch, error),
+            () -> {
+                // An empty bulk response leaves callers without results
+                for (Pending<T, R> item : batch) {
+                    item.result.completeExceptionally(
+                        new IllegalStateException(name + " bulk call returned no results"));
+                }
+            });
+    }
+
+    private void complete(List<Pending<T, R>> batch, List<R> results) {
+        if (results == null || results.size() != batch.size()) {
+            fail(batch, new IllegalStateException(String.format(
+                "%s bulk call returned %d results for %d requests",
+                name, results == null ? 0 : results.size(), batch.size())));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result.complete(results.get(i));
+        }
+    }
+
+    private void fail(List<Pending<T, R>> batch, Throwable error) {
+        logger.error("{} bulk call failed for {} requests", name, batch.size(), error);
+        for (Pending<T, R> item : batch) {
+            item.result.completeExceptionally(error);
+        }
+    }
+
+    @Override
+    public void close() {
+        flushOnTimer();
+        scheduler.shutdown();
+    }
+
+    private static final class Pending<T, R> {
+        private final T request;
+        private final CompletableFuture<R> result;
+        private final long enqueuedAt;
+
+        private Pending(T request, CompletableFuture<R> result, long enqueuedAt) {
+            this.request = request;
+            this.result = result;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.minicommerce.order.catalog;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Immutable product id to name, price and active flag table, stored as parallel
+ * primitive arrays with open addressing on the two halves of the id. A lookup hashes
+ * two longs and probes a few array slots, without allocating or boxing. Changes
+ * produce a new table, so readers never see a product half-updated.
+ */
+public class ProductTable {
+
+    public static final ProductTable EMPTY = new ProductTable(16);
+
+    private static final int NOT_FOUND = -1;
+
+    private final long[] idHigh;
+    private final long[] idLow;
+    private final String[] names;
+    private final long[] priceCents;
+    private final boolean[] active;
+    private final int mask;
+    private int size;
+
+    private ProductTable(int capacity) {
+        this.idHigh = new long[capacity];
+        this.idLow = new long[capacity];
+        this.names = new String[capacity];
+        this.priceCents = new long[capacity];
+        this.active = new boolean[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * A table of {@code products}, later entries replacing earlier ones with the same id
+     */
+    public static ProductTable of(Collection<Product> products) {
+        ProductTable table = new ProductTable(capacityFor(products.size()));
+        for (Product product : products) {
+            table.put(product);
+        }
+        return table;
+    }
+
+    /**
+     * A copy of this table with {@code changes} applied
+     */
+    public ProductTable withChanges(Collection<Product> changes) {
+        ProductTable table = new ProductTable(capacityFor(size + changes.size()));
+        for (int slot = 0; slot < names.length; slot++) {
+            if (names[slot] != null) {
+                table.put(idHigh[slot], idLow[slot], names[slot], priceCents[slot], active[slot]);
+            }
+        }
+        for (Product product : changes) {
+            table.put(product);
+        }
+        return table;
+    }
+
+    /**
+     * Slot of a product for the accessors below, or -1 if the table does not hold it
+     */
+    public int find(UUID productId) {
+        long high = productId.getMostSignificantBits();
+        long low = productId.getLeastSignificantBits();
+        int slot = hash(high, low) & mask;
+        while (names[slot] != null) {
+            if (idHigh[slot] == high && idLow[slot] == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return NOT_FOUND;
+    }
+
+    public String name(int slot) {
+        return names[slot];
+    }
+
+    public long priceCents(int slot) {
+        return priceCents[slot];
+    }
+
+    public boolean isActive(int slot) {
+        return active[slot];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void put(Product product) {
+        put(product.getId().getMostSignificantBits(), product.getId().getLeastSignificantBits(),
+            product.getName(), product.getPriceCents(), product.isActive());
+    }
+
+    private void put(long high, long low, String name, long price, boolean isActive) {
+        int slot = hash(high, low) & mask;
+        while (names[slot] != null && (idHigh[slot] != high || idLow[slot] != low)) {
+            slot = (slot + 1) & mask;
+        }
+        if (names[slot] == null) {
+            size++;
+        }
+        idHigh[slot] = high;
+        idLow[slot] = low;
+        names[slot] = name;
+        priceCents[slot] = price;
+        active[slot] = isActive;
+    }
+
+    /** At most half full, so probe sequences stay short */
+    private static int capacityFor(int entries) {
+        return Math.max(16, Integer.highestOneBit(Math.max(entries, 1) * 2 - 1) << 1);
+    }
+
+    /** Spreads the id bits; version 4 ids are random, but time-ordered ids share their high bits */
+    private static int hash(long high, long low) {
+        long h = high * 0x9E3779B97F4A7C15L ^ low;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    /**
+     * One product row of the catalog feed
+     */
+    public static class Product {
+        private final UUID id;
+        private final String name;
+        private final long priceCents;
+        private final boolean active;
+
+        public Product(UUID id, String name, long priceCents, boolean active) {
+            this.id = id;
+            this.name = name;
+            this.priceCents = priceCents;
+            this.active = active;
+        }
+
+        public UUID getId() { return id; }
+        public String getName() { return name; }
+        public long getPriceCents() { return priceCents; }
+        public boolean isActive() { return active; }
+    }
+}
@@ -0,0 +1,59 @@
+package com.minicommerce.order.controller;
+
+import com.minicommerce.order.event.ReservationData;
+import com.minicommerce.order.service.InventoryBatchClient.BulkReservationRequest;
+import com.minicommerce.order.service.InventoryBatchClient.BulkReservationResponse;
+import com.minicommerce.order.service.InventoryBatchClient.BulkReservationResult;
+import com.minicommerce.order.service.SagaOrchestrator.InventoryReservationRequest;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Local stand-in for the inventory service's bulk reservation endpoint.
+ * Only active with the "inventory-stub" profile; every reservation succeeds.
+ */
+@RestController
+@RequestMapping("/api/inventory")
+@Profile("inventory-stub")
+public class InventoryStubController {
+
+    /**
+     * Reserve inventory for several orders at once
+     */
+    @PostMapping("/reserve/bulk")
+    public ResponseEntity<BulkReservationResponse> reserveBulk(@RequestBody BulkReservationRequest request) {
+        List<BulkReservationResult> results = new ArrayList<>(request.getReservations().size());
+        for (InventoryReservationRequest reservation : request.getReservations()) {
+            BulkReservationResult result = new BulkReservationResult();
+            result.setOrderId(reservation.getOrderId());
+            result.setSuccess(true);
+            result.setReservationId(UUID.randomUUID());
+            result.setReservations(reservation.getItems().stream()
+                .map(item -> new ReservationData(item.getProductId(), item.getQuantity(), "reserved"))
+                .toList());
+            results.add(result);
+        }
+        return ResponseEntity.ok(new BulkReservationResponse(results));
+    }
+
+    /**
+     * Confirm a reservation
+     */
+    @PostMapping("/confirm")
+    public ResponseEntity<Void> confirm() {
+        return ResponseEntity.ok().build();
+    }
+
+    /**
+     * Release a reservation
+     */
+    @PostMapping("/release")
+    public ResponseEntity<Void> release() {
+        return ResponseEntity.ok().build();
+    }
+}
@@ -1,21 +1,67 @@
 package com.minicommerce.order.controller;
 
 import com.minicommerce.order.dto.OrderDTO;
+import com.minicommerce.order.dto.OrderProgressDTO;
+import com.minicommerce.order.dto.ProductOrdersPageDTO;
+import com.minicommerce.order.dto.RevenueBucketDTO;
+import com.minicommerce.order.dto.UserOrderSummaryDTO;
+import com.minicommerce.order.dto.TrendingProductDTO;
 import com.minicommerce.order.model.Order;
 import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.repository.OrderProjectionRepository.Fields;
+import com.minicommerce.order.repository.OrderProjectionRepository.VersionedOrder;
+import com.minicommerce.order.repository.RevenueRollupRepository.Granularity;
+import com.minicommerce.order.service.AdmissionGate;
+import com.minicommerce.order.service.OrderBulkTransitionService;
+import com.minicommerce.order.service.OrderBulkTransitionService.BulkTransitionRequest;
+import com.minicommerce.order.service.OrderBulkTransitionService.BulkTransitionResult;
+import com.minicommerce.order.service.OrderImportService;
+import com.minicommerce.order.service.OrderImportService.ImportStatus;
+import com.minicommerce.order.service.OrderProgressHub;
 import com.minicommerce.order.service.OrderService;
+import com.minicommerce.order.service.OrderService.BatchGetRequest;
+import com.minicommerce.order.service.InventoryAvailabilityCache.OutOfStock;
+import com.minicommerce.order.service.InventoryAvailabilityCache.OutOfStockException;
 import com.minicommerce.order.service.OrderService.CreateOrderRequest;
 import com.minicommerce.order.service.OrderService.OrderStatistics;
+import com.minicommerce.order.service.OrderService.TransitionConflict;
+import com.minicommerce.order.service.OrderService.TransitionConflictException;
+import com.minicommerce.order.service.RevenueRollupService;
+import com.minicommerce.order.service.RevenueRollupService.BackfillStatus;
+import com.minicommerce.order.service.TrendingProductsService;
+import com.minicommerce.order.web.ConditionalGets;
+import com.minicommerce.order.web.OrderJsonCache;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
@@ -28,17 +74,72 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private AdmissionGate admissionGate;
+    
+    @Autowired
+    private OrderProgressHub orderProgressHub;
+    
+    @Autowired
+    private TrendingProductsService trendingProductsService;
+    
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
+    @Autowired
+    private OrderImportService orderImportService;
+    
+    @Autowired
+    private ConditionalGets conditionalGets;
+    
+    @Autowired
+    private OrderJsonCache orderJsonCache;
+    
+    @Autowired
+    private OrderBulkTransitionService orderBulkTransitionService;
+    
+    @Value("${order.batch-get.max-ids:500}")
+    private int batchGetMaxIds;
+    
     /**
-     * Create a new order
+     * Create a new order.
+     * With "Prefer: respond-async" the order is acknowledged with 202 as soon as it is
+     * stored; progress is then available from GET /api/orders/{orderId}/events.
+     * Lines that do not match the catalog are rejected with 400 when order.catalog.enforce is on,
+     * and carts the inventory near-cache shows to be out of stock with 409.
      */
     @PostMapping
-    public ResponseEntity<OrderDTO> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+    public ResponseEntity<?> createOrder(
+            @Valid @RequestBody CreateOrderRequest request,
+            @RequestHeader(value = "X-Retry-Attempt", required = false) Integer retryAttempt,
+            @RequestHeader(value = "Prefer", required = false) String prefer) {
+        AdmissionGate.Lane lane = retryAttempt != null && retryAttempt > 0
+            ? AdmissionGate.Lane.retry : AdmissionGate.Lane.fresh;
+        AdmissionGate.Decision decision = admissionGate.admit(lane);
+        if (!decision.isAdmitted()) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(decision.getRetryAfterSeconds()))
+                    .build();
+        }
+        
         try {
-            logger.info("Creating order for user: {}", request.getUserId());
+            if (prefer != null && prefer.contains("respond-async")) {
+                Order order = orderService.acceptOrder(request);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/orders/" + order.getId()))
+                        .header("Preference-Applied", "respond-async")
+                        .body(new OrderProgressDTO(order));
+            }
+            
+            // OrderService logs the creation with its order id
             Order order = orderService.createOrder(request);
-            logger.info("Order created successfully with ID: {}", order.getId());
             OrderDTO orderDTO = new OrderDTO(order);
             return ResponseEntity.status(HttpStatus.CREATED).body(orderDTO);
+        } catch (OutOfStockException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new OutOfStock(e));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected order: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Failed to create order", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -46,18 +147,52 @@ public class OrderController {
     }
     
     /**
-     * Get order by ID
+     * Get order by ID.
+     * {@code fields} limits the response to the listed OrderDTO fields and {@code expand=items}
+     * adds the items; without either parameter the full order with items is returned.
+     * Responses carry a weak ETag and If-None-Match is answered with 304 from the order version alone.
+     * Full representations are served from pre-serialized JSON while the order is unchanged.
      */
     @GetMapping("/{orderId}")
-    public ResponseEntity<OrderDTO> getOrder(@PathVariable UUID orderId) {
+    public ResponseEntity<?> getOrder(
+            @PathVariable UUID orderId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String expand,
+            WebRequest webRequest,
+            HttpServletResponse response) {
         try {
+            Fields selection = fields != null || expand != null ? Fields.parse(fields, expand) : null;
+            Optional<String> validator = orderService.getOrderValidator(orderId);
+            if (validator.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            String etag = conditionalGets.etag(validator.get(), fields, expand);
+            if (conditionalGets.checkNotModified(webRequest, "order", etag)) {
+                return null;
+            }
+            if (selection == null && orderJsonCache.writeIfPresent(orderId, etag, response)) {
+                return null;
+            }
+            
+            if (selection != null) {
+                Optional<Map<String, Object>> order = orderService.getOrderFields(orderId, selection);
+                return order.<ResponseEntity<?>>map(body -> ResponseEntity.ok().eTag(etag).body(body))
+                        .orElseGet(() -> ResponseEntity.notFound().build());
+            }
+            
             Optional<Order> order = orderService.getOrderById(orderId);
             if (order.isPresent()) {
                 OrderDTO orderDTO = new OrderDTO(order.get());
-                return ResponseEntity.ok(orderDTO);
+                if (orderJsonCache.isEnabled()) {
+                    orderJsonCache.put(orderId, etag, orderDTO, response);
+                    return null;
+                }
+                return ResponseEntity.ok().eTag(etag).body(orderDTO);
             } else {
                 return ResponseEntity.notFound().build();
             }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Failed to get order: {}", orderId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -65,16 +200,32 @@ public class OrderController {
     }
     
     /**
-     * Get orders by user ID
+     * Get orders by user ID, supporting the same {@code fields}, {@code expand} and If-None-Match handling
      */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OrderDTO>> getOrdersByUser(@PathVariable UUID userId) {
+    public ResponseEntity<?> getOrdersByUser(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String expand,
+            WebRequest webRequest) {
         try {
+            Fields selection = fields != null || expand != null ? Fields.parse(fields, expand) : null;
+            String etag = conditionalGets.etag(orderService.getUserOrdersValidator(userId), fields, expand);
+            if (conditionalGets.checkNotModified(webRequest, "user_orders", etag)) {
+                return null;
+            }
+            
+            if (selection != null) {
+                return ResponseEntity.ok().eTag(etag).body(orderService.getOrderFieldsByUserId(userId, selection));
+            }
+            
             List<Order> orders = orderService.getOrdersByUserId(userId);
             List<OrderDTO> orderDTOs = orders.stream()
                     .map(OrderDTO::new)
                     .collect(java.util.stream.Collectors.toList());
-            return ResponseEntity.ok(orderDTOs);
+            return ResponseEntity.ok().eTag(etag).body(orderDTOs);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             logger.error("Failed to get orders for user: {}", userId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -82,16 +233,149 @@ public class OrderController {
     }
     
     /**
-     * Update order status
+     * Get order count, lifetime spend, counts by status and recent order headers of a user
+     */
+    @GetMapping("/user/{userId}/summary")
+    public ResponseEntity<UserOrderSummaryDTO> getUserOrderSummary(
+            @PathVariable UUID userId,
+            @RequestParam(defaultValue = "5") int recent) {
+        try {
+            int recentLimit = Math.max(0, Math.min(recent, 50));
+            return ResponseEntity.ok(orderService.getUserOrderSummary(userId, recentLimit));
+        } catch (Exception e) {
+            logger.error("Failed to get order summary for user: {}", userId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Get the order lines containing a product, newest first, for recalls and support.
+     * Pass {@code nextCursor} of a page as {@code cursor} to get the next one.
+     */
+    @GetMapping("/by-product/{productId}")
+    public ResponseEntity<ProductOrdersPageDTO> getOrdersByProduct(
+            @PathVariable UUID productId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Set<OrderStatus> status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            int pageSize = Math.max(1, Math.min(limit, 500));
+            return ResponseEntity.ok(orderService.getOrdersByProduct(productId, cursor, status, from, to, pageSize));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Failed to get orders for product: {}", productId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Get several full orders by id with one query for their headers and one for the
+     * items of orders not already in the JSON cache. Found orders are returned in request
+     * order; ids without an order are listed under {@code missing}. Order bodies are
+     * written to the response as their cached UTF-8 bytes.
+     */
+    @PostMapping("/batch-get")
+    public ResponseEntity<?> batchGetOrders(@RequestBody BatchGetRequest request, HttpServletResponse response) {
+        List<UUID> ids = request.getIds();
+        if (ids == null || ids.isEmpty() || ids.size() > batchGetMaxIds || ids.contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            Map<UUID, VersionedOrder> found = orderService.getVersionedOrders(new LinkedHashSet<>(ids));
+            
+            Map<UUID, ByteBuffer> bodies = new HashMap<>();
+            Map<UUID, String> uncachedEtags = new HashMap<>();
+            List<OrderDTO> uncached = new ArrayList<>();
+            for (VersionedOrder order : found.values()) {
+                UUID orderId = order.getOrder().getId();
+                String etag = conditionalGets.etag(order.getValidator(), null, null);
+                ByteBuffer body = orderJsonCache.getBody(orderId, etag);
+                if (body != null) {
+                    bodies.put(orderId, body);
+                } else {
+                    uncachedEtags.put(orderId, etag);
+                    uncached.add(order.getOrder());
+                }
+            }
+            
+            orderService.loadItems(uncached);
+            for (OrderDTO order : uncached) {
+                bodies.put(order.getId(), orderJsonCache.putBody(order.getId(), uncachedEtags.get(order.getId()), order));
+            }
+            
+            List<ByteBuffer> orders = new ArrayList<>();
+            List<UUID> missing = new ArrayList<>();
+            for (UUID orderId : ids) {
+                ByteBuffer body = bodies.get(orderId);
+                if (body != null) {
+                    orders.add(body);
+                } else {
+                    missing.add(orderId);
+                }
+            }
+            writeBatchGetResponse(orders, missing, response);
+            return null;
+        } catch (Exception e) {
+            logger.error("Failed to batch get {} orders", ids.size(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Write {@code {"orders":[...],"missing":[...]}} with each order body copied as is
+     */
+    private static void writeBatchGetResponse(List<ByteBuffer> orders, List<UUID> missing,
+                                              HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        
+        OutputStream out = response.getOutputStream();
+        out.write("{\"orders\":[".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < orders.size(); i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            OrderJsonCache.writeBody(orders.get(i), out);
+        }
+        StringBuilder tail = new StringBuilder("],\"missing\":[");
+        for (int i = 0; i < missing.size(); i++) {
+            tail.append(i > 0 ? ",\"" : "\"").append(missing.get(i)).append('"');
+        }
+        out.write(tail.append("]}").toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Stream status and saga state transitions of an order as Server-Sent Events
+     */
+    @GetMapping(value = "/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderProgress(@PathVariable UUID orderId) {
+        return orderProgressHub.subscribeToOrder(orderId, orderService::findOrderHeader)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Stream status and saga state transitions of all orders of a user as Server-Sent Events
+     */
+    @GetMapping(value = "/user/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUserOrderProgress(@PathVariable UUID userId) {
+        return orderProgressHub.subscribeToUser(userId);
+    }
+    
+    /**
+     * Update order status, 409 if the order's current status cannot move to it
      */
     @PutMapping("/{orderId}/status")
-    public ResponseEntity<OrderDTO> updateOrderStatus(
+    public ResponseEntity<?> updateOrderStatus(
             @PathVariable UUID orderId,
             @RequestParam OrderStatus status) {
         try {
-            Order order = orderService.updateOrderStatus(orderId, status);
-            OrderDTO orderDTO = new OrderDTO(order);
-            return ResponseEntity.ok(orderDTO);
+            return ResponseEntity.ok(orderService.updateOrderStatus(orderId, status));
+        } catch (TransitionConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new TransitionConflict(e));
         } catch (RuntimeException e) {
             logger.error("Failed to update order status: {}", orderId, e);
             return ResponseEntity.notFound().build();
@@ -102,25 +386,52 @@ public class OrderController {
     }
     
     /**
-     * Cancel order
+     * Cancel order, 409 if it already finished
      */
     @PutMapping("/{orderId}/cancel")
-    public ResponseEntity<OrderDTO> cancelOrder(
+    public ResponseEntity<?> cancelOrder(
             @PathVariable UUID orderId,
             @RequestParam(required = false) String reason) {
         try {
-            Order order = orderService.cancelOrder(orderId, reason);
-            OrderDTO orderDTO = new OrderDTO(order);
-            return ResponseEntity.ok(orderDTO);
+            return ResponseEntity.ok(orderService.cancelOrder(orderId, reason));
+        } catch (TransitionConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(new TransitionConflict(e));
         } catch (RuntimeException e) {
             logger.error("Failed to cancel order: {}", orderId, e);
-            return ResponseEntity.badRequest().build();
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             logger.error("Failed to cancel order: {}", orderId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    /**
+     * Move many orders, selected by id or by a status and creation-time filter, to
+     * {@code status}; orders that cannot move are counted as skipped
+     */
+    @PostMapping("/bulk/status")
+    public ResponseEntity<BulkTransitionResult> bulkUpdateOrderStatus(
+            @RequestParam OrderStatus status,
+            @RequestBody BulkTransitionRequest request) {
+        try {
+            return ResponseEntity.ok(orderBulkTransitionService.transition(request, status));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected bulk status update: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Failed bulk status update to {}", status, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Cancel many orders, selected by id or by a status and creation-time filter
+     */
+    @PostMapping("/bulk/cancel")
+    public ResponseEntity<BulkTransitionResult> bulkCancelOrders(@RequestBody BulkTransitionRequest request) {
+        return bulkUpdateOrderStatus(OrderStatus.cancelled, request);
+    }
+    
     /**
      * Get order statistics
      */
@@ -135,6 +446,107 @@ public class OrderController {
         }
     }
     
+    /**
+     * Get approximate top-selling products over a recent window (1m, 1h or 24h)
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<TrendingProductDTO>> getTrendingProducts(
+            @RequestParam(defaultValue = "1h") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<TrendingProductDTO> products = trendingProductsService.top(window, Math.min(Math.max(limit, 1), 100)).stream()
+                    .map(TrendingProductDTO::new)
+                    .collect(java.util.stream.Collectors.toList());
+            return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            logger.error("Failed to get trending products", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Get revenue per time bucket in [from, to), answered from the revenue rollups
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<List<RevenueBucketDTO>> getRevenue(
+            @RequestParam(defaultValue = "day") Granularity granularity,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) OrderStatus status) {
+        // Keep minute-level queries to a bounded number of buckets
+        if (!to.isAfter(from) || (granularity == Granularity.minute && Duration.between(from, to).toDays() > 31)) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            List<RevenueBucketDTO> buckets = revenueRollupService.getRevenue(granularity, from, to, status).stream()
+                    .map(RevenueBucketDTO::new)
+                    .collect(java.util.stream.Collectors.toList());
+            return ResponseEntity.ok(buckets);
+        } catch (Exception e) {
+            logger.error("Failed to get revenue", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Rebuild revenue rollups from existing orders, in parallel per day
+     */
+    @PostMapping("/revenue/backfill")
+    public ResponseEntity<BackfillStatus> backfillRevenue(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.accepted().body(revenueRollupService.startBackfill(from, to));
+        } catch (Exception e) {
+            logger.error("Failed to start revenue backfill", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Get progress of the latest revenue rollup backfill
+     */
+    @GetMapping("/revenue/backfill")
+    public ResponseEntity<BackfillStatus> getRevenueBackfillStatus() {
+        BackfillStatus status = revenueRollupService.getBackfillStatus();
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+    
+    /**
+     * Import historical orders from an NDJSON body, one order with its items per line.
+     * Blocks until the whole body is imported; progress is available meanwhile from
+     * GET /api/orders/import/{importId}. Re-sending the same input under the same
+     * importId skips the chunks that were already committed. Answers 500 with the
+     * status when some chunks failed, so the import can be re-sent to finish them.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ImportStatus> importOrders(@RequestParam String importId, InputStream body) {
+        if (!importId.matches("[A-Za-z0-9._-]{1,100}")) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            ImportStatus status = orderImportService.importOrders(importId, body);
+            return ResponseEntity.status(status.getChunksFailed() > 0 ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK)
+                .body(status);
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (Exception e) {
+            logger.error("Failed to import orders: {}", importId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+    
+    /**
+     * Get progress of a running order import, or the committed totals of an earlier one
+     */
+    @GetMapping("/import/{importId}")
+    public ResponseEntity<ImportStatus> getImportStatus(@PathVariable String importId) {
+        ImportStatus status = orderImportService.getImportStatus(importId);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+    
     /**
      * Health check endpoint
      */
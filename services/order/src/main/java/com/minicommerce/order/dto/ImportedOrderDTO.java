@@ -0,0 +1,156 @@
+package com.minicommerce.order.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One line of a historical order import: an order exported from the legacy platform
+ * with its items. Status and saga state are kept as text and validated in the
+ * database together with the rest of the chunk.
+ */
+public class ImportedOrderDTO {
+    @JsonIgnore
+    private long lineNumber;
+    private UUID id;
+    @JsonProperty("user_id")
+    private UUID userId;
+    private String status;
+    @JsonProperty("total_amount")
+    private BigDecimal totalAmount;
+    @JsonProperty("saga_state")
+    private String sagaState;
+    @JsonProperty("shipping_address")
+    private String shippingAddress;
+    @JsonProperty("billing_address")
+    private String billingAddress;
+    @JsonProperty("created_at")
+    private LocalDateTime createdAt;
+    @JsonProperty("updated_at")
+    private LocalDateTime updatedAt;
+    private List<Item> items = new ArrayList<>();
+
+    // Getters and Setters
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    public void setLineNumber(long lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public String getSagaState() {
+        return sagaState;
+    }
+
+    public void setSagaState(String sagaState) {
+        this.sagaState = sagaState;
+    }
+
+    public String getShippingAddress() {
+        return shippingAddress;
+    }
+
+    public void setShippingAddress(String shippingAddress) {
+        this.shippingAddress = shippingAddress;
+    }
+
+    public String getBillingAddress() {
+        return billingAddress;
+    }
+
+    public void setBillingAddress(String billingAddress) {
+        this.billingAddress = billingAddress;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items != null ? items : new ArrayList<>();
+    }
+
+    public static class Item {
+        private UUID id;
+        @JsonProperty("product_id")
+        private UUID productId;
+        @JsonProperty("product_name")
+        private String productName;
+        private Integer quantity;
+        @JsonProperty("unit_price")
+        private BigDecimal unitPrice;
+        @JsonProperty("total_price")
+        private BigDecimal totalPrice;
+        @JsonProperty("created_at")
+        private LocalDateTime createdAt;
+
+        public UUID getId() { return id; }
+        public void setId(UUID id) { this.id = id; }
+        public UUID getProductId() { return productId; }
+        public void setProductId(UUID productId) { this.productId = productId; }
+        public String getProductName() { return productName; }
+        public void setProductName(String productName) { this.productName = productName; }
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+        public BigDecimal getUnitPrice() { return unitPrice; }
+        public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
+        public BigDecimal getTotalPrice() { return totalPrice; }
+        public void setTotalPrice(BigDecimal totalPrice) { this.totalPrice = totalPrice; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    }
+}
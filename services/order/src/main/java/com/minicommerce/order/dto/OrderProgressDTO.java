@@ -0,0 +1,76 @@
+package com.minicommerce.order.dto;
+
+import com.minicommerce.order.event.OrderStatusChangedEvent;
+import com.minicommerce.order.model.Order;
+import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.model.SagaState;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class OrderProgressDTO {
+    private UUID orderId;
+    private OrderStatus status;
+    private SagaState sagaState;
+    private OrderStatus previousStatus;
+    private LocalDateTime timestamp;
+
+    // Constructors
+    public OrderProgressDTO() {}
+
+    public OrderProgressDTO(Order order) {
+        this.orderId = order.getId();
+        this.status = order.getStatus();
+        this.sagaState = order.getSagaState();
+        this.timestamp = order.getUpdatedAt();
+    }
+
+    public OrderProgressDTO(OrderStatusChangedEvent event) {
+        this.orderId = event.getOrderId();
+        this.status = event.getStatus();
+        this.sagaState = event.getSagaState();
+        this.previousStatus = event.getPreviousStatus();
+        this.timestamp = event.getTimestamp();
+    }
+
+    // Getters and Setters
+    public UUID getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(UUID orderId) {
+        this.orderId = orderId;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public SagaState getSagaState() {
+        return sagaState;
+    }
+
+    public void setSagaState(SagaState sagaState) {
+        this.sagaState = sagaState;
+    }
+
+    public OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(OrderStatus previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
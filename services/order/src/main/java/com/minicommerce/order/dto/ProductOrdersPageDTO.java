@@ -0,0 +1,91 @@
+package com.minicommerce.order.dto;
+
+import com.minicommerce.order.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One page of the order lines containing a product, newest first. {@code nextCursor}
+ * is null on the last page.
+ */
+public class ProductOrdersPageDTO {
+    private UUID productId;
+    private List<OrderLine> lines = new ArrayList<>();
+    private String nextCursor;
+
+    // Constructors
+    public ProductOrdersPageDTO() {}
+
+    public ProductOrdersPageDTO(UUID productId, List<OrderLine> lines, String nextCursor) {
+        this.productId = productId;
+        this.lines = lines;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public void setProductId(UUID productId) {
+        this.productId = productId;
+    }
+
+    public List<OrderLine> getLines() {
+        return lines;
+    }
+
+    public void setLines(List<OrderLine> lines) {
+        this.lines = lines;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public static class OrderLine {
+        private UUID orderId;
+        private UUID itemId;
+        private UUID userId;
+        private OrderStatus status;
+        private Integer quantity;
+        private BigDecimal unitPrice;
+        private LocalDateTime createdAt;
+
+        public OrderLine() {}
+
+        public OrderLine(UUID orderId, UUID itemId, UUID userId, OrderStatus status, Integer quantity,
+                         BigDecimal unitPrice, LocalDateTime createdAt) {
+            this.orderId = orderId;
+            this.itemId = itemId;
+            this.userId = userId;
+            this.status = status;
+            this.quantity = quantity;
+            this.unitPrice = unitPrice;
+            this.createdAt = createdAt;
+        }
+
+        public UUID getOrderId() { return orderId; }
+        public void setOrderId(UUID orderId) { this.orderId = orderId; }
+        public UUID getItemId() { return itemId; }
+        public void setItemId(UUID itemId) { this.itemId = itemId; }
+        public UUID getUserId() { return userId; }
+        public void setUserId(UUID userId) { this.userId = userId; }
+        public OrderStatus getStatus() { return status; }
+        public void setStatus(OrderStatus status) { this.status = status; }
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+        public BigDecimal getUnitPrice() { return unitPrice; }
+        public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    }
+}
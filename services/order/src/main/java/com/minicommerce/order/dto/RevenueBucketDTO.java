@@ -0,0 +1,57 @@
+package com.minicommerce.order.dto;
+
+import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.repository.RevenueRollupRepository.RevenueBucket;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class RevenueBucketDTO {
+    private LocalDateTime bucketStart;
+    private OrderStatus status;
+    private long orderCount;
+    private BigDecimal revenue;
+
+    // Constructors
+    public RevenueBucketDTO() {}
+
+    public RevenueBucketDTO(RevenueBucket bucket) {
+        this.bucketStart = bucket.getBucketStart();
+        this.status = bucket.getStatus();
+        this.orderCount = bucket.getOrderCount();
+        this.revenue = BigDecimal.valueOf(bucket.getAmountCents(), 2);
+    }
+
+    // Getters and Setters
+    public LocalDateTime getBucketStart() {
+        return bucketStart;
+    }
+
+    public void setBucketStart(LocalDateTime bucketStart) {
+        this.bucketStart = bucketStart;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
@@ -0,0 +1,56 @@
+package com.minicommerce.order.dto;
+
+import com.minicommerce.order.trending.SlidingWindowSketch.HeavyHitter;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public class TrendingProductDTO {
+    private UUID productId;
+    private String productName;
+    private long quantity;
+    private BigDecimal revenue;
+
+    // Constructors
+    public TrendingProductDTO() {}
+
+    public TrendingProductDTO(HeavyHitter hitter) {
+        this.productId = hitter.getProductId();
+        this.productName = hitter.getProductName();
+        this.quantity = hitter.getCount();
+        this.revenue = BigDecimal.valueOf(hitter.getRevenueCents(), 2);
+    }
+
+    // Getters and Setters
+    public UUID getProductId() {
+        return productId;
+    }
+
+    public void setProductId(UUID productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public long getQuantity() {
+        return quantity;
+    }
+
+    public void setQuantity(long quantity) {
+        this.quantity = quantity;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+}
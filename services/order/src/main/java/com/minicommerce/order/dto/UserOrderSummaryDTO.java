@@ -0,0 +1,106 @@
+package com.minicommerce.order.dto;
+
+import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.model.SagaState;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Everything the dashboard shows about a user's orders: lifetime totals, counts by
+ * status and the headers (without items) of the most recent orders.
+ */
+public class UserOrderSummaryDTO {
+    private UUID userId;
+    private long orderCount;
+    private BigDecimal lifetimeSpend = BigDecimal.ZERO;
+    private Map<OrderStatus, Long> countsByStatus = new EnumMap<>(OrderStatus.class);
+    private List<OrderHeader> recentOrders = new ArrayList<>();
+
+    // Constructors
+    public UserOrderSummaryDTO() {}
+
+    public UserOrderSummaryDTO(UUID userId) {
+        this.userId = userId;
+    }
+
+    // Getters and Setters
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public BigDecimal getLifetimeSpend() {
+        return lifetimeSpend;
+    }
+
+    public void setLifetimeSpend(BigDecimal lifetimeSpend) {
+        this.lifetimeSpend = lifetimeSpend;
+    }
+
+    public Map<OrderStatus, Long> getCountsByStatus() {
+        return countsByStatus;
+    }
+
+    public void setCountsByStatus(Map<OrderStatus, Long> countsByStatus) {
+        this.countsByStatus = countsByStatus;
+    }
+
+    public List<OrderHeader> getRecentOrders() {
+        return recentOrders;
+    }
+
+    public void setRecentOrders(List<OrderHeader> recentOrders) {
+        this.recentOrders = recentOrders;
+    }
+
+    public static class OrderHeader {
+        private UUID id;
+        private OrderStatus status;
+        private SagaState sagaState;
+        private BigDecimal totalAmount;
+        private LocalDateTime createdAt;
+        private LocalDateTime updatedAt;
+
+        public OrderHeader() {}
+
+        public OrderHeader(UUID id, OrderStatus status, SagaState sagaState, BigDecimal totalAmount,
+                           LocalDateTime createdAt, LocalDateTime updatedAt) {
+            this.id = id;
+            this.status = status;
+            this.sagaState = sagaState;
+            this.totalAmount = totalAmount;
+            this.createdAt = createdAt;
+            this.updatedAt = updatedAt;
+        }
+
+        public UUID getId() { return id; }
+        public void setId(UUID id) { this.id = id; }
+        public OrderStatus getStatus() { return status; }
+        public void setStatus(OrderStatus status) { this.status = status; }
+        public SagaState getSagaState() { return sagaState; }
+        public void setSagaState(SagaState sagaState) { this.sagaState = sagaState; }
+        public BigDecimal getTotalAmount() { return totalAmount; }
+        public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+        public LocalDateTime getCreatedAt() { return createdAt; }
+        public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+        public LocalDateTime getUpdatedAt() { return updatedAt; }
+        public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    }
+}
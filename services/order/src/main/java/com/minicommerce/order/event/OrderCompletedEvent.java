@@ -7,6 +7,7 @@ import java.util.UUID;
 
 public class OrderCompletedEvent extends OrderEvent {
     private OrderStatus status;
+    private UUID paymentId;
     
     public OrderCompletedEvent() {
         super();
@@ -14,9 +15,14 @@ public class OrderCompletedEvent extends OrderEvent {
     }
     
     public OrderCompletedEvent(UUID orderId, UUID userId, OrderStatus status) {
+        this(orderId, userId, status, null);
+    }
+    
+    public OrderCompletedEvent(UUID orderId, UUID userId, OrderStatus status, UUID paymentId) {
         super(orderId, userId);
         this.eventType = "OrderCompleted";
         this.status = status;
+        this.paymentId = paymentId;
     }
     
     public OrderStatus getStatus() {
@@ -26,5 +32,12 @@ public class OrderCompletedEvent extends OrderEvent {
     public void setStatus(OrderStatus status) {
         this.status = status;
     }
+    
+    public UUID getPaymentId() {
+        return paymentId;
+    }
+    
+    public void setPaymentId(UUID paymentId) {
+        this.paymentId = paymentId;
+    }
 }
-
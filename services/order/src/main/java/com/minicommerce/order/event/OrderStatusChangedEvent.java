@@ -0,0 +1,75 @@
+package com.minicommerce.order.event;
+
+import com.minicommerce.order.dto.OrderDTO;
+import com.minicommerce.order.model.Order;
+import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.model.SagaState;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * In-process application event published whenever an order is created or its
+ * status or saga state changes. Unlike the saga events it never leaves the JVM.
+ */
+public class OrderStatusChangedEvent {
+    private final UUID orderId;
+    private final UUID userId;
+    private final OrderStatus previousStatus;
+    private final OrderStatus status;
+    private final SagaState sagaState;
+    private final BigDecimal totalAmount;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime timestamp;
+
+    public OrderStatusChangedEvent(UUID orderId, UUID userId, OrderStatus previousStatus, OrderStatus status,
+                                   SagaState sagaState, BigDecimal totalAmount, LocalDateTime createdAt) {
+        this.orderId = orderId;
+        this.userId = userId;
+        this.previousStatus = previousStatus;
+        this.status = status;
+        this.sagaState = sagaState;
+        this.totalAmount = totalAmount;
+        this.createdAt = createdAt;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    public static OrderStatusChangedEvent of(Order order, OrderStatus previousStatus) {
+        return new OrderStatusChangedEvent(
+            order.getId(),
+            order.getUserId(),
+            previousStatus,
+            order.getStatus(),
+            order.getSagaState(),
+            order.getTotalAmount(),
+            order.getCreatedAt()
+        );
+    }
+
+    public static OrderStatusChangedEvent of(OrderDTO order, OrderStatus previousStatus) {
+        return new OrderStatusChangedEvent(
+            order.getId(),
+            order.getUserId(),
+            previousStatus,
+            order.getStatus(),
+            order.getSagaState(),
+            order.getTotalAmount(),
+            order.getCreatedAt()
+        );
+    }
+
+    public boolean isTerminal() {
+        return status.isTerminal();
+    }
+
+    // Getters
+    public UUID getOrderId() { return orderId; }
+    public UUID getUserId() { return userId; }
+    public OrderStatus getPreviousStatus() { return previousStatus; }
+    public OrderStatus getStatus() { return status; }
+    public SagaState getSagaState() { return sagaState; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+}
@@ -0,0 +1,260 @@
+package com.minicommerce.order.eventbus;
+
+import com.lmax.disruptor.InsufficientCapacityException;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.Sequence;
+import com.lmax.disruptor.SequenceReportingEventHandler;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * In-process event bus over preallocated Disruptor ring buffers, one per worker lane.
+ *
+ * Events are assigned to a lane by the hash of their key, so events with the same key
+ * are handled one at a time in publish order, while different keys spread over the
+ * lanes. Each lane has one worker thread, which handles all events published since
+ * its last pass as one batch and only then frees their slots for publishers.
+ *
+ * A publisher waits while its lane is full. A lane's own worker cannot wait for
+ * itself, so an event it publishes into its full lane is held in the lane's overflow
+ * queue instead, up to {@code overflowLimit} events, past which the publish is
+ * rejected. After each event it handles, the worker frees the slots handled so far
+ * and moves held events into the ring, behind the events queued before them.
+ */
+public class RingBufferEventBus<E> implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RingBufferEventBus.class);
+
+    private final String name;
+    private final List<Lane> lanes = new ArrayList<>();
+    private final Consumer<E> handler;
+    private final int overflowLimit;
+
+    private final Timer queueWait;
+    private final DistributionSummary batchSize;
+    private final Counter inlineEvents;
+    private final Counter overflowEvents;
+    private final Counter rejectedEvents;
+    private final Counter handlerErrors;
+
+    private volatile boolean running = true;
+
+    public RingBufferEventBus(String name, int laneCount, int bufferSize, int overflowLimit, WaitStrategy waitStrategy,
+                              Consumer<E> handler, MeterRegistry meterRegistry) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("laneCount must be positive");
+        }
+        if (bufferSize < 1 || Integer.bitCount(bufferSize) != 1) {
+            throw new IllegalArgumentException("bufferSize must be a power of two");
+        }
+        if (overflowLimit < 0) {
+            throw new IllegalArgumentException("overflowLimit must not be negative");
+        }
+        this.name = name;
+        this.handler = handler;
+        this.overflowLimit = overflowLimit;
+        this.queueWait = Timer.builder("order.events.wait")
+            .description("Time an event spent in its ring before its handler started")
+            .tag("bus", name)
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("order.events.batch")
+            .description("Events handled per worker batch")
+            .tag("bus", name)
+            .register(meterRegistry);
+        this.inlineEvents = Counter.builder("order.events.inline")
+            .description("Events handled on the publishing thread, because the bus was closed")
+            .tag("bus", name)
+            .register(meterRegistry);
+        this.overflowEvents = Counter.builder("order.events.overflow")
+            .description("Events a worker published into its own full lane, held until the lane had room")
+            .tag("bus", name)
+            .register(meterRegistry);
+        this.rejectedEvents = Counter.builder("order.events.rejected")
+            .description("Events a worker published into its own full lane while its overflow was full")
+            .tag("bus", name)
+            .register(meterRegistry);
+        this.handlerErrors = Counter.builder("order.events.errors")
+            .description("Events whose handler threw")
+            .tag("bus", name)
+            .register(meterRegistry);
+
+        for (int i = 0; i < laneCount; i++) {
+            Lane lane = new Lane(name + "-lane-" + i, bufferSize, waitStrategy);
+            lanes.add(lane);
+            Gauge.builder("order.events.lag", lane.ringBuffer, ring -> ring.getBufferSize() - ring.remainingCapacity())
+                .description("Events published to the lane and not yet handled")
+                .tag("bus", name)
+                .tag("lane", String.valueOf(i))
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Queue an event for the lane of {@code key}, waiting while that lane is full,
+     * unless the caller is the lane's worker. Once the bus is closed, events are
+     * handled on the calling thread.
+     *
+     * @throws RejectedExecutionException if the caller is the lane's worker and both
+     *     its ring and its overflow are full
+     */
+    public void publish(Object key, E event) {
+        if (!running) {
+            inlineEvents.increment();
+            handle(event);
+            return;
+        }
+        Lane lane = lanes.get(Math.floorMod(spread(key.hashCode()), lanes.size()));
+        if (Thread.currentThread() == lane.worker) {
+            lane.publishOwn(event);
+            return;
+        }
+        RingBuffer<Slot<E>> ringBuffer = lane.ringBuffer;
+        long sequence = ringBuffer.next();
+        Slot<E> slot = ringBuffer.get(sequence);
+        slot.event = event;
+        slot.publishedAt = System.nanoTime();
+        ringBuffer.publish(sequence);
+    }
+
+    private void handle(E event) {
+        try {
+            handler.accept(event);
+        } catch (RuntimeException e) {
+            handlerErrors.increment();
+            logger.error("{} event handler failed", name, e);
+        }
+    }
+
+    /**
+     * Stop accepting events and wait up to {@code timeoutMillis} for the lanes to drain
+     */
+    public void close(long timeoutMillis) {
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        for (Lane lane : lanes) {
+            try {
+                lane.disruptor.shutdown(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                logger.warn("{} still had {} events at shutdown", lane.name,
+                    lane.ringBuffer.getBufferSize() - lane.ringBuffer.remainingCapacity());
+                lane.disruptor.halt();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        close(5000);
+    }
+
+    /** Spreads hash codes whose entropy is in the high bits */
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Preallocated ring entry; the event reference is cleared once handled
+     */
+    private static final class Slot<E> {
+        private E event;
+        private long publishedAt;
+    }
+
+    private final class Lane implements SequenceReportingEventHandler<Slot<E>> {
+        private final String name;
+        private final Disruptor<Slot<E>> disruptor;
+        private final RingBuffer<Slot<E>> ringBuffer;
+        /** Events the worker published while its ring was full; only the worker touches it */
+        private final ArrayDeque<Slot<E>> overflow = new ArrayDeque<>();
+        private volatile Thread worker;
+        private Sequence handled;
+        private int batch;
+
+        private Lane(String name, int bufferSize, WaitStrategy waitStrategy) {
+            this.name = name;
+            this.disruptor = new Disruptor<>(Slot::new, bufferSize, runnable -> {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                worker = thread;
+                return thread;
+            }, ProducerType.MULTI, waitStrategy.create());
+            disruptor.handleEventsWith(this);
+            this.ringBuffer = disruptor.start();
+        }
+
+        @Override
+        public void setSequenceCallback(Sequence sequence) {
+            this.handled = sequence;
+        }
+
+        /**
+         * Publish from the worker, which cannot wait for its own ring to drain. Once an
+         * event is held, later ones are held behind it to keep their order.
+         */
+        private void publishOwn(E event) {
+            Slot<E> held = new Slot<>();
+            held.event = event;
+            held.publishedAt = System.nanoTime();
+            if (overflow.isEmpty() && tryPublish(held)) {
+                return;
+            }
+            if (overflow.size() >= overflowLimit) {
+                rejectedEvents.increment();
+                throw new RejectedExecutionException(name + " is full and already holds " + overflow.size() + " events");
+            }
+            overflowEvents.increment();
+            overflow.add(held);
+        }
+
+        private boolean tryPublish(Slot<E> held) {
+            long sequence;
+            try {
+                sequence = ringBuffer.tryNext();
+            } catch (InsufficientCapacityException e) {
+                return false;
+            }
+            Slot<E> slot = ringBuffer.get(sequence);
+            slot.event = held.event;
+            slot.publishedAt = held.publishedAt;
+            ringBuffer.publish(sequence);
+            return true;
+        }
+
+        @Override
+        public void onEvent(Slot<E> slot, long sequence, boolean endOfBatch) {
+            E event = slot.event;
+            slot.event = null;
+            queueWait.record(System.nanoTime() - slot.publishedAt, TimeUnit.NANOSECONDS);
+            handle(event);
+            batch++;
+            if (!overflow.isEmpty()) {
+                // Free the slots handled so far, ahead of the batch's end, to make room for held events.
+                // If the ring is still full, other publishers filled it and the worker gets to retry.
+                handled.set(sequence);
+                while (!overflow.isEmpty() && tryPublish(overflow.peek())) {
+                    overflow.poll();
+                }
+            }
+            if (endOfBatch) {
+                batchSize.record(batch);
+                batch = 0;
+            }
+        }
+    }
+}
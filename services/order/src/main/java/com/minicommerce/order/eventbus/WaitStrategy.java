@@ -0,0 +1,47 @@
+package com.minicommerce.order.eventbus;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.BusySpinWaitStrategy;
+import com.lmax.disruptor.SleepingWaitStrategy;
+import com.lmax.disruptor.YieldingWaitStrategy;
+
+/**
+ * How an idle lane worker waits for the next event. Strategies further down use less
+ * CPU while idle and take longer to notice new events.
+ */
+public enum WaitStrategy {
+
+    /** Spin on the ring; lowest latency, keeps one core per lane busy */
+    busy_spin {
+        @Override
+        com.lmax.disruptor.WaitStrategy create() {
+            return new BusySpinWaitStrategy();
+        }
+    },
+
+    /** Spin briefly, then yield the core to other runnable threads */
+    yielding {
+        @Override
+        com.lmax.disruptor.WaitStrategy create() {
+            return new YieldingWaitStrategy();
+        }
+    },
+
+    /** Spin, yield, then park for short intervals; tens of microseconds of added latency */
+    sleeping {
+        @Override
+        com.lmax.disruptor.WaitStrategy create() {
+            return new SleepingWaitStrategy();
+        }
+    },
+
+    /** Wait on a lock until a publisher signals; no CPU while idle, a lock per publish */
+    blocking {
+        @Override
+        com.lmax.disruptor.WaitStrategy create() {
+            return new BlockingWaitStrategy();
+        }
+    };
+
+    abstract com.lmax.disruptor.WaitStrategy create();
+}
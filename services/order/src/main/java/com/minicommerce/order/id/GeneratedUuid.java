@@ -0,0 +1,20 @@
+package com.minicommerce.order.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * UUID identifier generated on persist unless the entity already has one. The
+ * version comes from the order.ids.version setting, or {@link #value()} without it.
+ */
+@IdGeneratorType(GeneratedUuidGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface GeneratedUuid {
+
+    UuidVersion value() default UuidVersion.time_ordered;
+}
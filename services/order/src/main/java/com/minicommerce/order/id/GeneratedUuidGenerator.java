@@ -0,0 +1,40 @@
+package com.minicommerce.order.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+/**
+ * Hibernate generator behind {@link GeneratedUuid}. An id assigned before persisting
+ * is kept, so callers can take one from {@link UuidVersion#next()} up front.
+ */
+public class GeneratedUuidGenerator implements BeforeExecutionGenerator {
+
+    /** Hibernate setting, passed through spring.jpa.properties, that overrides the annotation */
+    public static final String VERSION_SETTING = "order.ids.version";
+
+    private final UuidVersion version;
+
+    public GeneratedUuidGenerator(GeneratedUuid annotation, Member member, CustomIdGeneratorCreationContext context) {
+        Object setting = context.getServiceRegistry().getService(ConfigurationService.class)
+            .getSettings().get(VERSION_SETTING);
+        this.version = setting != null ? UuidVersion.valueOf(setting.toString().trim()) : annotation.value();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        Object assigned = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+        return assigned != null ? assigned : version.next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,36 @@
+package com.minicommerce.order.id;
+
+import com.fasterxml.uuid.Generators;
+import com.fasterxml.uuid.impl.TimeBasedEpochGenerator;
+
+import java.util.UUID;
+
+/**
+ * How new identifiers are generated. Random ids spread inserts over every page of a
+ * B-tree index on them; time-ordered ids append to its right edge, like a sequence.
+ */
+public enum UuidVersion {
+
+    /** Version 4, 122 random bits */
+    random {
+        @Override
+        public UUID next() {
+            return UUID.randomUUID();
+        }
+    },
+
+    /**
+     * Version 7, a 48-bit Unix millisecond timestamp followed by random bits. Ids
+     * generated in the same millisecond by this process still increase.
+     */
+    time_ordered {
+        @Override
+        public UUID next() {
+            return TIME_ORDERED.generate();
+        }
+    };
+
+    private static final TimeBasedEpochGenerator TIME_ORDERED = Generators.timeBasedEpochGenerator();
+
+    public abstract UUID next();
+}
@@ -0,0 +1,159 @@
+package com.minicommerce.order.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the threads holding or waiting for a JDBC connection with a fair semaphore
+ * sized to the connection pool. With virtual threads, request concurrency is no longer
+ * bounded by the servlet thread pool, and thousands of threads queueing inside the
+ * pool would all time out together; here they wait in order and the wait is measured.
+ * A permit is held from getConnection until the connection is closed.
+ */
+@Component
+public class ConnectionLimitingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final boolean enabled;
+    private final int permits;
+    private final long acquireTimeoutMillis;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    public ConnectionLimitingDataSourcePostProcessor(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = environment.getProperty("order.jdbc.limiter.enabled", Boolean.class, false);
+        int configuredPermits = environment.getProperty("order.jdbc.limiter.permits", Integer.class, 0);
+        this.permits = configuredPermits > 0 ? configuredPermits
+            : environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10);
+        this.acquireTimeoutMillis = environment.getProperty("order.jdbc.limiter.acquire-timeout-ms", Long.class, 30000L);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (enabled && bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+            return new ConnectionLimitingDataSource(dataSource, permits, acquireTimeoutMillis, meterRegistry);
+        }
+        return bean;
+    }
+
+    public static class ConnectionLimitingDataSource extends DelegatingDataSource {
+
+        private final Semaphore semaphore;
+        private final long acquireTimeoutMillis;
+        private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+        private volatile Timer acquireWait;
+        private volatile Counter timeouts;
+
+        ConnectionLimitingDataSource(DataSource dataSource, int permits, long acquireTimeoutMillis,
+                                     ObjectProvider<MeterRegistry> meterRegistry) {
+            super(dataSource);
+            this.semaphore = new Semaphore(permits, true);
+            this.acquireTimeoutMillis = acquireTimeoutMillis;
+            this.meterRegistryProvider = meterRegistry;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            acquire();
+            try {
+                return releasingOnClose(super.getConnection());
+            } catch (SQLException | RuntimeException e) {
+                semaphore.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            acquire();
+            try {
+                return releasingOnClose(super.getConnection(username, password));
+            } catch (SQLException | RuntimeException e) {
+                semaphore.release();
+                throw e;
+            }
+        }
+
+        /** Threads waiting for a permit, which the pool itself does not see */
+        public int getThreadsWaiting() {
+            return semaphore.getQueueLength();
+        }
+
+        private void acquire() throws SQLException {
+            registerMeters();
+            long start = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = semaphore.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLTransientConnectionException("Interrupted waiting for a JDBC connection permit", e);
+            }
+            acquireWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException(
+                    "No JDBC connection permit within " + acquireTimeoutMillis + " ms, " + semaphore.getQueueLength() + " threads waiting");
+            }
+        }
+
+        /** Meters are registered on first use, since the registry is created after the data source */
+        private void registerMeters() {
+            if (timeouts != null) {
+                return;
+            }
+            MeterRegistry meterRegistry = meterRegistryProvider.getObject();
+            Gauge.builder("order.jdbc.limiter.waiting", semaphore, Semaphore::getQueueLength)
+                .description("Threads waiting for a JDBC connection permit")
+                .register(meterRegistry);
+            Gauge.builder("order.jdbc.limiter.available", semaphore, Semaphore::availablePermits)
+                .description("JDBC connection permits not held by any thread")
+                .register(meterRegistry);
+            acquireWait = Timer.builder("order.jdbc.limiter.wait")
+                .description("Time waited for a JDBC connection permit")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+            timeouts = Counter.builder("order.jdbc.limiter.timeouts")
+                .description("Connection requests failed for want of a permit")
+                .register(meterRegistry);
+        }
+
+        /** The permit is returned the first time the connection is closed */
+        private Connection releasingOnClose(Connection connection) {
+            AtomicBoolean closed = new AtomicBoolean();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            semaphore.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.minicommerce.order.jdbc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Encodes rows in PostgreSQL's binary COPY format for {@code COPY ... FROM STDIN
+ * (FORMAT binary)}. Values are written in the server's wire representation, so the
+ * server skips text parsing; columns must be written in the order of the COPY
+ * column list and with matching types.
+ */
+public class PgBinaryCopyWriter {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final short NUMERIC_POSITIVE = 0x0000;
+    private static final short NUMERIC_NEGATIVE = 0x4000;
+
+    private final ByteArrayOutputStream buffer;
+    private final DataOutputStream out;
+    private int rows;
+
+    public PgBinaryCopyWriter(int expectedBytes) {
+        this.buffer = new ByteArrayOutputStream(expectedBytes);
+        this.out = new DataOutputStream(buffer);
+        try {
+            out.write(SIGNATURE);
+            out.writeInt(0); // flags
+            out.writeInt(0); // header extension length
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public PgBinaryCopyWriter startRow(int columns) {
+        rows++;
+        return write(() -> out.writeShort(columns));
+    }
+
+    public PgBinaryCopyWriter uuid(UUID value) {
+        if (value == null) {
+            return writeNull();
+        }
+        return write(() -> {
+            out.writeInt(16);
+            out.writeLong(value.getMostSignificantBits());
+            out.writeLong(value.getLeastSignificantBits());
+        });
+    }
+
+    public PgBinaryCopyWriter text(String value) {
+        if (value == null) {
+            return writeNull();
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        return write(() -> {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        });
+    }
+
+    public PgBinaryCopyWriter int4(Integer value) {
+        if (value == null) {
+            return writeNull();
+        }
+        return write(() -> {
+            out.writeInt(4);
+            out.writeInt(value);
+        });
+    }
+
+    public PgBinaryCopyWriter int8(Long value) {
+        if (value == null) {
+            return writeNull();
+        }
+        return write(() -> {
+            out.writeInt(8);
+            out.writeLong(value);
+        });
+    }
+
+    /**
+     * Timestamp without time zone, as microseconds since 2000-01-01
+     */
+    public PgBinaryCopyWriter timestamp(LocalDateTime value) {
+        if (value == null) {
+            return writeNull();
+        }
+        return write(() -> {
+            out.writeInt(8);
+            out.writeLong(ChronoUnit.MICROS.between(POSTGRES_EPOCH, value));
+        });
+    }
+
+    /**
+     * Numeric as base-10000 digits with a weight (position of the first digit group
+     * relative to the decimal point), sign and display scale
+     */
+    public PgBinaryCopyWriter numeric(BigDecimal value) {
+        if (value == null) {
+            return writeNull();
+        }
+        int scale = Math.max(value.scale(), 0);
+        String plain = value.abs().setScale(scale, RoundingMode.UNNECESSARY).toPlainString();
+        int point = plain.indexOf('.');
+        String integer = point < 0 ? plain : plain.substring(0, point);
+        String fraction = point < 0 ? "" : plain.substring(point + 1);
+
+        // Pad both parts to whole groups of four digits around the decimal point
+        integer = "0".repeat((4 - integer.length() % 4) % 4) + integer;
+        fraction = fraction + "0".repeat((4 - fraction.length() % 4) % 4);
+        String digits = integer + fraction;
+        short[] groups = new short[digits.length() / 4];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = Short.parseShort(digits.substring(i * 4, i * 4 + 4));
+        }
+
+        int first = 0;
+        int last = groups.length;
+        while (first < last && groups[first] == 0) {
+            first++;
+        }
+        while (last > first && groups[last - 1] == 0) {
+            last--;
+        }
+        int weight = first == last ? 0 : integer.length() / 4 - 1 - first;
+        int count = last - first;
+        int from = first;
+        short sign = value.signum() < 0 ? NUMERIC_NEGATIVE : NUMERIC_POSITIVE;
+        return write(() -> {
+            out.writeInt(8 + 2 * count);
+            out.writeShort(count);
+            out.writeShort(weight);
+            out.writeShort(sign);
+            out.writeShort(scale);
+            for (int i = from; i < from + count; i++) {
+                out.writeShort(groups[i]);
+            }
+        });
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Append the trailer and return the complete COPY input
+     */
+    public InputStream finish() {
+        write(() -> out.writeShort(-1));
+        return new ByteArrayInputStream(buffer.toByteArray());
+    }
+
+    private PgBinaryCopyWriter writeNull() {
+        return write(() -> out.writeInt(-1));
+    }
+
+    private PgBinaryCopyWriter write(IoAction action) {
+        try {
+            action.run();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,164 @@
+package com.minicommerce.order.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Wraps the application DataSource so every statement executed and every row read
+ * is counted against the thread's current {@link QueryScope}. Threads without a
+ * scope only pay for one ThreadLocal lookup per call.
+ *
+ * Connections taken and statements executed on non-blocking threads, such as the
+ * Reactor Netty event loops of the WebClient, are reported: one blocking call there
+ * stalls every exchange on that loop. {@code order.jdbc.non-blocking-thread-action}
+ * chooses whether to log them, throw (for tests) or not check at all.
+ */
+@Component
+public class QueryCountingDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCountingDataSourcePostProcessor.class);
+
+    private final boolean enabled;
+    private final String nonBlockingThreadAction;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private volatile Counter nonBlockingThreadCalls;
+
+    public QueryCountingDataSourcePostProcessor(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        this.enabled = environment.getProperty("order.jdbc.instrumentation.enabled", Boolean.class, true);
+        this.nonBlockingThreadAction = environment.getProperty("order.jdbc.non-blocking-thread-action", "warn");
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        boolean checkThreads = !"off".equalsIgnoreCase(nonBlockingThreadAction);
+        if ((enabled || checkThreads) && bean instanceof DataSource dataSource && !Proxy.isProxyClass(bean.getClass())) {
+            return proxy(DataSource.class, dataSource, (target, method, args) -> {
+                if (checkThreads && method.getName().equals("getConnection")) {
+                    checkThread("getConnection");
+                }
+                Object result = invoke(target, method, args);
+                return enabled && result instanceof Connection connection ? wrapConnection(connection) : result;
+            });
+        }
+        return bean;
+    }
+
+    /**
+     * @throws IllegalStateException if called on a non-blocking thread and the action is fail
+     */
+    private void checkThread(String call) {
+        if ("off".equalsIgnoreCase(nonBlockingThreadAction) || !Schedulers.isInNonBlockingThread()) {
+            return;
+        }
+        Counter counter = nonBlockingThreadCalls;
+        if (counter == null) {
+            counter = Counter.builder("order.jdbc.non_blocking_thread_calls")
+                .description("JDBC connections taken or statements executed on non-blocking threads")
+                .register(meterRegistry.getObject());
+            nonBlockingThreadCalls = counter;
+        }
+        counter.increment();
+        String message = "Blocking JDBC call " + call + " on non-blocking thread " + Thread.currentThread().getName();
+        if ("fail".equalsIgnoreCase(nonBlockingThreadAction)) {
+            throw new IllegalStateException(message);
+        }
+        logger.warn(message, new IllegalStateException("Called from"));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof CallableStatement statement) {
+                return wrapStatement(CallableStatement.class, statement, (String) args[0]);
+            } else if (result instanceof PreparedStatement statement) {
+                return wrapStatement(PreparedStatement.class, statement, (String) args[0]);
+            } else if (result instanceof Statement statement) {
+                return wrapStatement(Statement.class, statement, null);
+            }
+            return result;
+        });
+    }
+
+    private <S extends Statement> S wrapStatement(Class<S> type, S statement, String preparedSql) {
+        return proxy(type, statement, (target, method, args) -> {
+            String name = method.getName();
+            if (!name.startsWith("execute")) {
+                Object result = invoke(target, method, args);
+                return result instanceof ResultSet resultSet && name.equals("getResultSet")
+                    ? wrapResultSet(resultSet) : result;
+            }
+
+            checkThread(name);
+            QueryScope scope = QueryScope.current();
+            long start = System.nanoTime();
+            Object result = invoke(target, method, args);
+            if (scope != null) {
+                String sql = preparedSql != null ? preparedSql
+                    : args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+                scope.statementExecuted(sql, System.nanoTime() - start);
+                if (result instanceof ResultSet resultSet) {
+                    return wrapResultSet(resultSet);
+                }
+            }
+            return result;
+        });
+    }
+
+    private static ResultSet wrapResultSet(ResultSet resultSet) {
+        QueryScope scope = QueryScope.current();
+        if (scope == null) {
+            return resultSet;
+        }
+        return proxy(ResultSet.class, resultSet, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (Boolean.TRUE.equals(result) && method.getName().equals("next")) {
+                scope.rowsRead(1);
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Handler<T> handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.equals("unwrap") || name.equals("isWrapperFor")) {
+                return invoke(target, method, args);
+            }
+            return handler.handle(target, method, args);
+        };
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler<T> {
+        Object handle(T target, Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,84 @@
+package com.minicommerce.order.jdbc;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Statement, row and time counters for one unit of work (an HTTP request or a
+ * saga step), bound to the thread doing it. Filled in by the instrumented
+ * DataSource and closed by {@link QueryStats}.
+ */
+public class QueryScope {
+
+    private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+    private final String type;
+    private String name;
+    private final int statementBudget;
+    private final boolean failOverBudget;
+    private final long startNanos = System.nanoTime();
+
+    private int statements;
+    private long rows;
+    private long jdbcNanos;
+    private final Map<String, Integer> statementsBySql = new HashMap<>();
+
+    QueryScope(String type, String name, int statementBudget, boolean failOverBudget) {
+        this.type = type;
+        this.name = name;
+        this.statementBudget = statementBudget;
+        this.failOverBudget = failOverBudget;
+    }
+
+    public static QueryScope current() {
+        return CURRENT.get();
+    }
+
+    static void bind(QueryScope scope) {
+        if (scope == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(scope);
+        }
+    }
+
+    void statementExecuted(String sql, long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+        if (sql != null) {
+            statementsBySql.merge(sql, 1, Integer::sum);
+        }
+        if (failOverBudget && statements > statementBudget) {
+            throw new StatementBudgetExceededException(type + " " + name + " executed " + statements
+                + " statements, budget is " + statementBudget);
+        }
+    }
+
+    void rowsRead(long count) {
+        rows += count;
+    }
+
+    /**
+     * The statement executed most often in this scope, the usual sign of an N+1 pattern
+     */
+    Map.Entry<String, Integer> mostRepeatedStatement() {
+        return statementsBySql.entrySet().stream()
+            .max(Map.Entry.comparingByValue())
+            .orElse(null);
+    }
+
+    public String getType() { return type; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public int getStatementBudget() { return statementBudget; }
+    public int getStatements() { return statements; }
+    public long getRows() { return rows; }
+    public long getJdbcNanos() { return jdbcNanos; }
+    public long getElapsedNanos() { return System.nanoTime() - startNanos; }
+
+    public static class StatementBudgetExceededException extends RuntimeException {
+        public StatementBudgetExceededException(String message) {
+            super(message);
+        }
+    }
+}
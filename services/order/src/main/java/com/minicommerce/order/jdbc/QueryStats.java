@@ -0,0 +1,178 @@
+package com.minicommerce.order.jdbc;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens and closes {@link QueryScope}s, publishes their counters as metrics tagged
+ * by scope, enforces the statement budget and keeps per-scope aggregates for the
+ * "queries" actuator endpoint.
+ */
+@Component
+public class QueryStats {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryStats.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int statementBudget;
+    private final boolean failOverBudget;
+    private final int repeatThreshold;
+    private final Map<String, Offender> offenders = new ConcurrentHashMap<>();
+
+    public QueryStats(MeterRegistry meterRegistry,
+                      @Value("${order.jdbc.statement-budget:25}") int statementBudget,
+                      @Value("${order.jdbc.budget-action:warn}") String budgetAction,
+                      @Value("${order.jdbc.repeat-threshold:5}") int repeatThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+        this.failOverBudget = "fail".equalsIgnoreCase(budgetAction);
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    /**
+     * Start counting for the current thread, or return null if a scope is already
+     * open, in which case work is counted against the outer scope
+     */
+    public QueryScope open(String type, String name) {
+        if (QueryScope.current() != null) {
+            return null;
+        }
+        QueryScope scope = new QueryScope(type, name, statementBudget, failOverBudget);
+        QueryScope.bind(scope);
+        return scope;
+    }
+
+    public void close(QueryScope scope) {
+        if (scope == null) {
+            return;
+        }
+        QueryScope.bind(null);
+        if (scope.getStatements() > 0) {
+            record(scope);
+        }
+    }
+
+    public void run(String type, String name, Runnable work) {
+        QueryScope scope = open(type, name);
+        try {
+            work.run();
+        } finally {
+            close(scope);
+        }
+    }
+
+    public List<Offender> topOffenders(int limit) {
+        return offenders.values().stream()
+            .sorted(Comparator.comparingInt(Offender::getMaxStatements).reversed()
+                .thenComparing(Comparator.comparingDouble(Offender::getAvgStatements).reversed()))
+            .limit(limit)
+            .toList();
+    }
+
+    private void record(QueryScope scope) {
+        String type = scope.getType();
+        String name = scope.getName();
+
+        DistributionSummary.builder("order.jdbc.statements")
+            .description("JDBC statements executed per request or saga step")
+            .tags("scope", type, "name", name)
+            .register(meterRegistry)
+            .record(scope.getStatements());
+        DistributionSummary.builder("order.jdbc.rows")
+            .description("JDBC rows read per request or saga step")
+            .tags("scope", type, "name", name)
+            .register(meterRegistry)
+            .record(scope.getRows());
+        Timer.builder("order.jdbc.time")
+            .description("Time spent executing JDBC statements per request or saga step")
+            .tags("scope", type, "name", name)
+            .register(meterRegistry)
+            .record(scope.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        boolean overBudget = scope.getStatements() > statementBudget;
+        Map.Entry<String, Integer> repeated = scope.mostRepeatedStatement();
+        boolean suspectedNPlusOne = repeated != null && repeated.getValue() >= repeatThreshold;
+
+        if (overBudget) {
+            Counter.builder("order.jdbc.budget_exceeded")
+                .tags("scope", type, "name", name)
+                .register(meterRegistry)
+                .increment();
+            logger.warn("{} {} executed {} statements, budget is {} (most repeated {}x: {})", type, name,
+                scope.getStatements(), statementBudget,
+                repeated != null ? repeated.getValue() : 0, repeated != null ? repeated.getKey() : "-");
+        } else if (suspectedNPlusOne) {
+            logger.warn("{} {} repeated one statement {} times, possible N+1: {}", type, name,
+                repeated.getValue(), repeated.getKey());
+        }
+        if (suspectedNPlusOne) {
+            Counter.builder("order.jdbc.repeated_statements")
+                .description("Requests or saga steps that repeated one statement beyond the threshold")
+                .tags("scope", type, "name", name)
+                .register(meterRegistry)
+                .increment();
+        }
+
+        offenders.computeIfAbsent(type + " " + name, key -> new Offender(type, name))
+            .add(scope, overBudget, suspectedNPlusOne ? repeated : null);
+    }
+
+    /**
+     * Aggregated JDBC usage of one endpoint or saga step
+     */
+    public static class Offender {
+        private final String scope;
+        private final String name;
+        private long executions;
+        private long totalStatements;
+        private int maxStatements;
+        private long totalRows;
+        private long totalJdbcNanos;
+        private long overBudget;
+        private int maxRepeats;
+        private String mostRepeatedSql;
+
+        Offender(String scope, String name) {
+            this.scope = scope;
+            this.name = name;
+        }
+
+        synchronized void add(QueryScope queryScope, boolean overBudget, Map.Entry<String, Integer> repeated) {
+            executions++;
+            totalStatements += queryScope.getStatements();
+            maxStatements = Math.max(maxStatements, queryScope.getStatements());
+            totalRows += queryScope.getRows();
+            totalJdbcNanos += queryScope.getJdbcNanos();
+            if (overBudget) {
+                this.overBudget++;
+            }
+            if (repeated != null && repeated.getValue() > maxRepeats) {
+                maxRepeats = repeated.getValue();
+                mostRepeatedSql = repeated.getKey();
+            }
+        }
+
+        public String getScope() { return scope; }
+        public String getName() { return name; }
+        public synchronized long getExecutions() { return executions; }
+        public synchronized int getMaxStatements() { return maxStatements; }
+        public synchronized double getAvgStatements() { return executions == 0 ? 0 : (double) totalStatements / executions; }
+        public synchronized double getAvgRows() { return executions == 0 ? 0 : (double) totalRows / executions; }
+        public synchronized double getAvgJdbcMillis() { return executions == 0 ? 0 : totalJdbcNanos / 1e6 / executions; }
+        public synchronized long getOverBudget() { return overBudget; }
+        public synchronized int getMaxRepeats() { return maxRepeats; }
+        public synchronized String getMostRepeatedSql() { return mostRepeatedSql; }
+    }
+}
@@ -0,0 +1,27 @@
+package com.minicommerce.order.jdbc;
+
+import com.minicommerce.order.jdbc.QueryStats.Offender;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * /actuator/queries: endpoints and saga steps ordered by the most statements
+ * a single execution needed
+ */
+@Component
+@Endpoint(id = "queries")
+public class QueryStatsEndpoint {
+
+    @Autowired
+    private QueryStats queryStats;
+
+    @ReadOperation
+    public List<Offender> topOffenders(@Nullable Integer limit) {
+        return queryStats.topOffenders(limit != null ? limit : 20);
+    }
+}
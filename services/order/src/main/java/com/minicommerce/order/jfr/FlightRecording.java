@@ -0,0 +1,116 @@
+package com.minicommerce.order.jfr;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Continuous low-overhead flight recording kept on disk for a bounded age and
+ * size, so the last minutes before a latency spike can be dumped after the fact.
+ */
+@Component
+public class FlightRecording {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecording.class);
+
+    private static final String RECORDING_NAME = "order-continuous";
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final boolean enabled;
+    private final String settings;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Path dumpDirectory;
+
+    private Recording recording;
+
+    public FlightRecording(@Value("${order.jfr.enabled:true}") boolean enabled,
+                           @Value("${order.jfr.settings:default}") String settings,
+                           @Value("${order.jfr.max-age:30m}") Duration maxAge,
+                           @Value("${order.jfr.max-size-mb:100}") long maxSizeMb,
+                           @Value("${order.jfr.dump-directory:${java.io.tmpdir}}") String dumpDirectory) {
+        this.enabled = enabled;
+        this.settings = settings;
+        this.maxAge = maxAge;
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.dumpDirectory = Path.of(dumpDirectory);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            recording = new Recording(Configuration.getConfiguration(settings));
+        } catch (IOException | ParseException e) {
+            logger.error("Cannot load flight recorder settings '{}', continuous recording disabled", settings, e);
+            return;
+        }
+        recording.setName(RECORDING_NAME);
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        recording.enable(OrderCreationPhaseEvent.class);
+        recording.enable(SagaStepEvent.class);
+        recording.start();
+        logger.info("Started continuous flight recording '{}' with {} settings, keeping {}", RECORDING_NAME, settings, maxAge);
+    }
+
+    public boolean isRunning() {
+        return recording != null;
+    }
+
+    /**
+     * Write the last {@code last} of the continuous recording to a new file
+     *
+     * @return the written file
+     */
+    public Path dump(Duration last) throws Exception {
+        if (recording == null) {
+            throw new IllegalStateException("Continuous flight recording is not running");
+        }
+        Files.createDirectories(dumpDirectory);
+        Path file = dumpDirectory.resolve("order-service-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".jfr")
+            .toAbsolutePath();
+
+        // JFR.dump can cut the recording to a time window, Recording.dump cannot
+        String[] arguments = {
+            "name=" + RECORDING_NAME,
+            "filename=" + file,
+            "begin=-" + Math.max(last.toSeconds(), 1) + "s"
+        };
+        String output = (String) ManagementFactory.getPlatformMBeanServer().invoke(
+            new ObjectName("com.sun.management:type=DiagnosticCommand"),
+            "jfrDump",
+            new Object[] { arguments },
+            new String[] { String[].class.getName() });
+        if (!Files.exists(file)) {
+            throw new IllegalStateException("Flight recording dump failed: " + output.trim());
+        }
+        logger.info("Dumped last {} of flight recording to {}", last, file);
+        return file;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
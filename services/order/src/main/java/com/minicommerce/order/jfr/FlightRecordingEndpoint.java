@@ -0,0 +1,40 @@
+package com.minicommerce.order.jfr;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * /actuator/jfr: POST dumps the last {@code minutes} (default 5) of the continuous
+ * flight recording to a file on the service host
+ */
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecordingEndpoint {
+
+    @Autowired
+    private FlightRecording flightRecording;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        return Map.of("running", flightRecording.isRunning());
+    }
+
+    @WriteOperation
+    public Map<String, Object> dump(@Nullable Integer minutes) throws Exception {
+        int window = minutes != null && minutes > 0 ? minutes : 5;
+        Path file = flightRecording.dump(Duration.ofMinutes(window));
+        return Map.of(
+            "file", file.toString(),
+            "minutes", window,
+            "bytes", Files.size(file));
+    }
+}
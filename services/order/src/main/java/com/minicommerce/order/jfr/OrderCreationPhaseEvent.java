@@ -0,0 +1,46 @@
+package com.minicommerce.order.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * One phase of OrderService order creation: validate, persist, flush, reload or notify
+ */
+@Name("com.minicommerce.order.OrderCreationPhase")
+@Label("Order Creation Phase")
+@Category({"Mini Commerce", "Order"})
+@StackTrace(false)
+public class OrderCreationPhaseEvent extends Event {
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Order Id")
+    @Description("Empty for phases that run before the order is stored")
+    private String orderId;
+
+    @Label("Item Count")
+    private int itemCount;
+
+    public static OrderCreationPhaseEvent start(String phase, int itemCount) {
+        OrderCreationPhaseEvent event = new OrderCreationPhaseEvent();
+        event.phase = phase;
+        event.itemCount = itemCount;
+        event.begin();
+        return event;
+    }
+
+    public void finish(UUID orderId) {
+        end();
+        if (shouldCommit()) {
+            this.orderId = orderId != null ? orderId.toString() : null;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.minicommerce.order.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+import java.util.UUID;
+
+/**
+ * Downstream call of one saga step, from request until its response or error
+ * arrives, before the step's handlers run
+ */
+@Name("com.minicommerce.order.SagaStep")
+@Label("Saga Step")
+@Category({"Mini Commerce", "Order"})
+@StackTrace(false)
+public class SagaStepEvent extends Event {
+
+    @Label("Step")
+    private String step;
+
+    @Label("Order Id")
+    private String orderId;
+
+    @Label("Item Count")
+    @Description("-1 when the order was loaded without its items")
+    private int itemCount;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public static SagaStepEvent start(String step, UUID orderId, int itemCount) {
+        SagaStepEvent event = new SagaStepEvent();
+        event.step = step;
+        event.orderId = orderId.toString();
+        event.itemCount = itemCount;
+        event.begin();
+        return event;
+    }
+
+    public void finish(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.minicommerce.order.jfr;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports virtual threads pinned to their carrier thread, from the JDK's
+ * jdk.VirtualThreadPinned flight recorder event. A virtual thread that blocks inside
+ * a synchronized block or a native frame keeps its carrier, and enough of them
+ * starve every other virtual thread. Pins are timed in order.threads.pinned, and the
+ * first pin at each call site is logged with its stack.
+ */
+@Component
+public class VirtualThreadPinning {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinning.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_DEPTH = 12;
+
+    private final boolean enabled;
+    private final Duration threshold;
+    private final Timer pinned;
+    private final Map<String, Boolean> loggedSites = new ConcurrentHashMap<>();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinning(MeterRegistry meterRegistry,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                                @Value("${order.threads.pinning-threshold:20ms}") Duration threshold) {
+        // The event exists from Java 21, when virtual threads do
+        this.enabled = virtualThreads && Runtime.version().feature() >= 21;
+        this.threshold = threshold;
+        this.pinned = Timer.builder("order.threads.pinned")
+            .description("Virtual threads that blocked while pinned to their carrier, longer than the threshold")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Watching for virtual threads pinned longer than {}", threshold);
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        if (event.getStackTrace() == null) {
+            return;
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        StringBuilder stack = new StringBuilder();
+        for (int i = 0; i < Math.min(frames.size(), STACK_DEPTH); i++) {
+            RecordedFrame frame = frames.get(i);
+            stack.append("\n\tat ").append(frame.getMethod().getType().getName())
+                .append('.').append(frame.getMethod().getName())
+                .append(':').append(frame.getLineNumber());
+        }
+        String site = stack.toString();
+        if (loggedSites.size() < 100 && loggedSites.putIfAbsent(site, Boolean.TRUE) == null) {
+            logger.warn("Virtual thread pinned for {} ms{}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
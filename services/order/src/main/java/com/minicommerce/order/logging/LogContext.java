@@ -0,0 +1,44 @@
+package com.minicommerce.order.logging;
+
+import org.slf4j.MDC;
+
+import java.util.UUID;
+
+/**
+ * Puts the order id and saga step into the MDC for the current thread, where the
+ * JSON encoder emits them as fields of every event. Closing restores the previous
+ * values, so contexts can nest when one saga step synchronously triggers the next.
+ */
+public final class LogContext implements AutoCloseable {
+
+    public static final String ORDER_ID = "orderId";
+    public static final String SAGA_STEP = "sagaStep";
+
+    private final String previousOrderId;
+    private final String previousSagaStep;
+
+    private LogContext(UUID orderId, String sagaStep) {
+        this.previousOrderId = MDC.get(ORDER_ID);
+        this.previousSagaStep = MDC.get(SAGA_STEP);
+        MDC.put(ORDER_ID, orderId.toString());
+        MDC.put(SAGA_STEP, sagaStep);
+    }
+
+    public static LogContext open(UUID orderId, String sagaStep) {
+        return new LogContext(orderId, sagaStep);
+    }
+
+    @Override
+    public void close() {
+        restore(ORDER_ID, previousOrderId);
+        restore(SAGA_STEP, previousSagaStep);
+    }
+
+    private static void restore(String key, String value) {
+        if (value == null) {
+            MDC.remove(key);
+        } else {
+            MDC.put(key, value);
+        }
+    }
+}
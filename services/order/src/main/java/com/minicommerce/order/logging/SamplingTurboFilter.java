@@ -0,0 +1,70 @@
+package com.minicommerce.order.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one in N INFO-and-below events of selected loggers, decided before the
+ * event is built. Warnings and errors always pass. Configured in logback-spring.xml
+ * from {@code order.logging.sampling}, e.g.
+ * {@code com.minicommerce.order.service.SagaOrchestrator=10,com.minicommerce.order.service.OrderService=5}
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private final Map<String, Sampler> samplers = new HashMap<>();
+
+    public void setSamples(String samples) {
+        samplers.clear();
+        if (samples == null || samples.isBlank()) {
+            return;
+        }
+        for (String sample : samples.split(",")) {
+            String[] parts = sample.trim().split("=");
+            if (parts.length != 2) {
+                addError("Expected logger=rate but got: " + sample);
+                continue;
+            }
+            try {
+                int rate = Integer.parseInt(parts[1].trim());
+                if (rate > 1) {
+                    samplers.put(parts[0].trim(), new Sampler(rate));
+                }
+            } catch (NumberFormatException e) {
+                addError("Invalid sampling rate in: " + sample);
+            }
+        }
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isXxxEnabled() checks, which must not consume a sample
+        if (format == null || level.isGreaterOrEqual(Level.WARN) || samplers.isEmpty()) {
+            return FilterReply.NEUTRAL;
+        }
+        Sampler sampler = samplers.get(logger.getName());
+        if (sampler == null || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        return sampler.keep() ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private static class Sampler {
+        private final int rate;
+        private final AtomicLong events = new AtomicLong();
+
+        Sampler(int rate) {
+            this.rate = rate;
+        }
+
+        boolean keep() {
+            return events.getAndIncrement() % rate == 0;
+        }
+    }
+}
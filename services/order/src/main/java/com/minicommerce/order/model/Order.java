@@ -1,6 +1,7 @@
 package com.minicommerce.order.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.minicommerce.order.id.GeneratedUuid;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -18,7 +19,7 @@ import java.util.UUID;
 public class Order {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedUuid
     private UUID id;
     
     @NotNull
@@ -1,6 +1,7 @@
 package com.minicommerce.order.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.minicommerce.order.id.GeneratedUuid;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -15,7 +16,7 @@ import java.util.UUID;
 public class OrderItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @GeneratedUuid
     private UUID id;
     
     @ManyToOne(fetch = FetchType.LAZY)
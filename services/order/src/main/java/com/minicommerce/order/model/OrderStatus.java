@@ -1,9 +1,40 @@
 package com.minicommerce.order.model;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     pending,
     processing,
     completed,
     failed,
-    cancelled
+    cancelled;
+
+    /** Legal transitions: each status to the statuses an order may move to it from */
+    private static final Map<OrderStatus, Set<OrderStatus>> PREDECESSORS = new EnumMap<>(OrderStatus.class);
+
+    static {
+        PREDECESSORS.put(pending, EnumSet.noneOf(OrderStatus.class));
+        PREDECESSORS.put(processing, EnumSet.of(pending));
+        PREDECESSORS.put(completed, EnumSet.of(pending, processing));
+        PREDECESSORS.put(failed, EnumSet.of(pending, processing));
+        PREDECESSORS.put(cancelled, EnumSet.of(pending, processing));
+    }
+
+    /**
+     * Whether an order in this status has finished its saga
+     */
+    public boolean isTerminal() {
+        return this == completed || this == failed || this == cancelled;
+    }
+
+    /**
+     * Statuses an order may move to this status from
+     */
+    public Set<OrderStatus> predecessors() {
+        return Collections.unmodifiableSet(PREDECESSORS.get(this));
+    }
 }
@@ -0,0 +1,71 @@
+package com.minicommerce.order.repository;
+
+import com.minicommerce.order.catalog.ProductTable.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Product feed for the local catalog snapshot, read from the catalog service's table.
+ * The catalog API only pages active products and has no change feed, while the table
+ * keeps deactivated products and stamps every change in updated_at.
+ */
+@Repository
+public class CatalogProductRepository {
+
+    private static final String PRODUCT_COLUMNS = "SELECT id, name, price, is_active, updated_at FROM catalog_service.products";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Every product, active or not
+     */
+    public Changes findAll() {
+        Changes changes = new Changes();
+        jdbcTemplate.query(PRODUCT_COLUMNS, changes);
+        return changes;
+    }
+
+    /**
+     * Products changed after {@code since}. Callers pass a watermark minus some slack,
+     * since a transaction that commits late can stamp a row earlier than rows already seen.
+     */
+    public Changes findChangedSince(LocalDateTime since) {
+        Changes changes = new Changes();
+        jdbcTemplate.query(PRODUCT_COLUMNS + " WHERE updated_at > ?", changes, since);
+        return changes;
+    }
+
+    /**
+     * Products read in one query and the latest updated_at among them
+     */
+    public static class Changes implements RowCallbackHandler {
+        private final List<Product> products = new ArrayList<>();
+        private LocalDateTime watermark;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            products.add(new Product(rs.getObject("id", UUID.class), rs.getString("name"),
+                rs.getBigDecimal("price").movePointRight(2).longValue(), rs.getBoolean("is_active")));
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            LocalDateTime stamp = updatedAt != null ? updatedAt.toLocalDateTime() : null;
+            if (stamp != null && (watermark == null || stamp.isAfter(watermark))) {
+                watermark = stamp;
+            }
+        }
+
+        public List<Product> getProducts() { return products; }
+        /** Latest updated_at read, or null if no row had one */
+        public LocalDateTime getWatermark() { return watermark; }
+    }
+}
@@ -0,0 +1,69 @@
+package com.minicommerce.order.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Available stock per product for the inventory near-cache, read from the inventory
+ * service's table. Every reservation, release and restock stamps the row's
+ * updated_at, so polling by updated_at sees all changes.
+ */
+@Repository
+public class InventoryAvailabilityRepository {
+
+    private static final String AVAILABILITY_COLUMNS =
+        "SELECT product_id, available_quantity, updated_at FROM inventory_service.inventory";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Available stock of every product with an inventory row
+     */
+    public Changes findAll() {
+        Changes changes = new Changes();
+        jdbcTemplate.query(AVAILABILITY_COLUMNS, changes);
+        return changes;
+    }
+
+    /**
+     * Available stock of products changed after {@code since}
+     */
+    public Changes findChangedSince(LocalDateTime since) {
+        Changes changes = new Changes();
+        jdbcTemplate.query(AVAILABILITY_COLUMNS + " WHERE updated_at > ?", changes, since);
+        return changes;
+    }
+
+    /**
+     * Available stock read in one query and the latest updated_at among the rows
+     */
+    public static class Changes implements RowCallbackHandler {
+        private final Map<UUID, Integer> available = new HashMap<>();
+        private LocalDateTime watermark;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            available.put(rs.getObject("product_id", UUID.class), rs.getInt("available_quantity"));
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            LocalDateTime stamp = updatedAt != null ? updatedAt.toLocalDateTime() : null;
+            if (stamp != null && (watermark == null || stamp.isAfter(watermark))) {
+                watermark = stamp;
+            }
+        }
+
+        public Map<UUID, Integer> getAvailable() { return available; }
+        /** Latest updated_at read, or null if no row had one */
+        public LocalDateTime getWatermark() { return watermark; }
+    }
+}
@@ -0,0 +1,238 @@
+package com.minicommerce.order.repository;
+
+import com.minicommerce.order.dto.ImportedOrderDTO;
+import com.minicommerce.order.jdbc.PgBinaryCopyWriter;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based import of historical orders. Each chunk is binary-COPYed into
+ * session-local staging tables, validated with one statement and moved into the
+ * order tables with one insert-select. Must run inside a transaction so every
+ * statement uses the connection that owns the staging tables.
+ */
+@Repository
+public class OrderImportRepository {
+
+    private static final String CREATE_STAGING =
+        "CREATE TEMP TABLE IF NOT EXISTS import_orders (" +
+        "line_no BIGINT, id UUID, user_id UUID, status TEXT, total_amount NUMERIC, saga_state TEXT, " +
+        "shipping_address TEXT, billing_address TEXT, created_at TIMESTAMP, updated_at TIMESTAMP" +
+        ") ON COMMIT DELETE ROWS; " +
+        "CREATE TEMP TABLE IF NOT EXISTS import_order_items (" +
+        "order_id UUID, id UUID, product_id UUID, product_name TEXT, quantity INTEGER, " +
+        "unit_price NUMERIC, total_price NUMERIC, created_at TIMESTAMP" +
+        ") ON COMMIT DELETE ROWS; " +
+        // PostgreSQL 15 has no non-throwing JSON check, and one bad address must not fail the chunk
+        "CREATE OR REPLACE FUNCTION pg_temp.is_jsonb(value TEXT) RETURNS BOOLEAN LANGUAGE plpgsql AS $$ " +
+        "BEGIN PERFORM value::jsonb; RETURN TRUE; EXCEPTION WHEN others THEN RETURN FALSE; END $$";
+
+    private static final String COPY_ORDERS =
+        "COPY import_orders (line_no, id, user_id, status, total_amount, saga_state, " +
+        "shipping_address, billing_address, created_at, updated_at) FROM STDIN (FORMAT binary)";
+
+    private static final String COPY_ITEMS =
+        "COPY import_order_items (order_id, id, product_id, product_name, quantity, unit_price, total_price, created_at) " +
+        "FROM STDIN (FORMAT binary)";
+
+    /** Rejection reason to the condition on staged order o that triggers it, first match wins */
+    private static final Map<String, String> REJECT_REASONS = new LinkedHashMap<>();
+
+    static {
+        REJECT_REASONS.put("missing user_id", "o.user_id IS NULL");
+        REJECT_REASONS.put("invalid status",
+            "o.status IS NULL OR o.status NOT IN ('pending', 'processing', 'completed', 'failed', 'cancelled')");
+        REJECT_REASONS.put("invalid saga_state",
+            "o.saga_state NOT IN ('orchestrating', 'compensating', 'completed', 'failed')");
+        // Saga partition pickup would start live sagas, reserving stock and charging payment, for these
+        REJECT_REASONS.put("status not terminal", "o.status NOT IN ('completed', 'failed', 'cancelled')");
+        REJECT_REASONS.put("saga_state not terminal", "o.saga_state IN ('orchestrating', 'compensating')");
+        REJECT_REASONS.put("invalid address",
+            "(o.shipping_address IS NOT NULL AND NOT pg_temp.is_jsonb(o.shipping_address)) " +
+            "OR (o.billing_address IS NOT NULL AND NOT pg_temp.is_jsonb(o.billing_address))");
+        REJECT_REASONS.put("invalid total_amount",
+            "o.total_amount IS NULL OR o.total_amount NOT BETWEEN 0 AND 99999999.99");
+        REJECT_REASONS.put("duplicate id in chunk",
+            "o.id IN (SELECT id FROM import_orders GROUP BY id HAVING COUNT(*) > 1)");
+        REJECT_REASONS.put("invalid item",
+            "EXISTS (SELECT 1 FROM import_order_items i WHERE i.order_id = o.id AND (" +
+            "i.product_id IS NULL OR i.product_name IS NULL OR length(i.product_name) > 255 " +
+            "OR i.quantity IS NULL OR i.quantity <= 0 " +
+            "OR i.unit_price IS NULL OR i.unit_price NOT BETWEEN 0 AND 99999999.99 " +
+            "OR COALESCE(i.total_price, i.quantity * i.unit_price) NOT BETWEEN 0 AND 99999999.99))");
+    }
+
+    /** Removes staged orders that would violate the order table constraints, returning line and reason */
+    private static final String REJECT_INVALID =
+        "DELETE FROM import_orders o WHERE " +
+        REJECT_REASONS.values().stream().map(condition -> "(" + condition + ")").collect(Collectors.joining(" OR ")) +
+        " RETURNING o.line_no, CASE " +
+        REJECT_REASONS.entrySet().stream()
+            .map(reason -> "WHEN " + reason.getValue() + " THEN '" + reason.getKey() + "'")
+            .collect(Collectors.joining(" ")) +
+        " END";
+
+    /** Orders that already exist, from an earlier run or another import, are left untouched with their items */
+    private static final String INSERT_VALID =
+        "WITH inserted_orders AS (" +
+        "  INSERT INTO order_service.orders " +
+        "    (id, user_id, status, total_amount, saga_state, shipping_address, billing_address, created_at, updated_at) " +
+        "  SELECT id, user_id, status, total_amount, saga_state, shipping_address::jsonb, billing_address::jsonb, " +
+        "    COALESCE(created_at, NOW()), COALESCE(updated_at, created_at, NOW()) " +
+        "  FROM import_orders " +
+        "  ON CONFLICT (id) DO NOTHING " +
+        "  RETURNING id, created_at" +
+        "), inserted_items AS (" +
+        "  INSERT INTO order_service.order_items " +
+        "    (id, order_id, product_id, product_name, quantity, unit_price, total_price, created_at) " +
+        "  SELECT i.id, i.order_id, i.product_id, i.product_name, i.quantity, " +
+        "    i.unit_price, COALESCE(i.total_price, i.quantity * i.unit_price), COALESCE(i.created_at, o.created_at) " +
+        "  FROM import_order_items i JOIN inserted_orders o ON o.id = i.order_id " +
+        "  ON CONFLICT (id) DO NOTHING " +
+        "  RETURNING 1" +
+        ") " +
+        "SELECT (SELECT COUNT(*) FROM inserted_orders), (SELECT COUNT(*) FROM inserted_items)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Chunk size an import was started with, or null for a new import
+     */
+    public Integer findChunkSize(String importId) {
+        List<Integer> sizes = jdbcTemplate.queryForList(
+            "SELECT chunk_size FROM order_service.order_import_chunks WHERE import_id = ? LIMIT 1",
+            Integer.class, importId);
+        return sizes.isEmpty() ? null : sizes.get(0);
+    }
+
+    public Set<Integer> findCompletedChunks(String importId) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+            "SELECT chunk_no FROM order_service.order_import_chunks WHERE import_id = ?",
+            Integer.class, importId));
+    }
+
+    /**
+     * Totals over all committed chunks of an import
+     */
+    public Map<String, Object> findTotals(String importId) {
+        return jdbcTemplate.queryForMap(
+            "SELECT COUNT(*) AS chunks, COALESCE(SUM(orders_imported), 0) AS orders, " +
+            "COALESCE(SUM(items_imported), 0) AS items, COALESCE(SUM(rejected), 0) AS rejected, " +
+            "MAX(chunk_size) AS chunk_size " +
+            "FROM order_service.order_import_chunks WHERE import_id = ?",
+            importId);
+    }
+
+    /**
+     * Stage, validate and insert one chunk of orders
+     */
+    public ChunkResult importChunk(List<ImportedOrderDTO> orders) {
+        jdbcTemplate.execute(CREATE_STAGING);
+
+        PgBinaryCopyWriter orderRows = new PgBinaryCopyWriter(orders.size() * 256);
+        PgBinaryCopyWriter itemRows = new PgBinaryCopyWriter(orders.size() * 384);
+        for (ImportedOrderDTO order : orders) {
+            orderRows.startRow(10)
+                .int8(order.getLineNumber())
+                .uuid(order.getId())
+                .uuid(order.getUserId())
+                .text(order.getStatus())
+                .numeric(order.getTotalAmount())
+                .text(order.getSagaState())
+                .text(order.getShippingAddress())
+                .text(order.getBillingAddress())
+                .timestamp(order.getCreatedAt())
+                .timestamp(order.getUpdatedAt());
+            for (ImportedOrderDTO.Item item : order.getItems()) {
+                itemRows.startRow(8)
+                    .uuid(order.getId())
+                    .uuid(item.getId())
+                    .uuid(item.getProductId())
+                    .text(item.getProductName())
+                    .int4(item.getQuantity())
+                    .numeric(item.getUnitPrice())
+                    .numeric(item.getTotalPrice())
+                    .timestamp(item.getCreatedAt());
+            }
+        }
+        copyIn(COPY_ORDERS, orderRows);
+        if (itemRows.getRows() > 0) {
+            copyIn(COPY_ITEMS, itemRows);
+        }
+
+        List<Rejection> rejections = jdbcTemplate.query(REJECT_INVALID,
+            (rs, rowNum) -> new Rejection(rs.getLong(1), rs.getString(2)));
+        int[] inserted = jdbcTemplate.queryForObject(INSERT_VALID,
+            (rs, rowNum) -> new int[] { rs.getInt(1), rs.getInt(2) });
+        return new ChunkResult(inserted[0], inserted[1], rejections);
+    }
+
+    /**
+     * Mark a chunk as done, in the transaction that imported it
+     */
+    public void recordChunk(String importId, int chunkNo, int chunkSize, int ordersImported, int itemsImported,
+                            int rejected) {
+        jdbcTemplate.update(
+            "INSERT INTO order_service.order_import_chunks " +
+            "(import_id, chunk_no, chunk_size, orders_imported, items_imported, rejected) VALUES (?, ?, ?, ?, ?, ?)",
+            importId, chunkNo, chunkSize, ordersImported, itemsImported, rejected);
+    }
+
+    private void copyIn(String sql, PgBinaryCopyWriter rows) {
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, rows.finish());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Outcome of one chunk
+     */
+    public static class ChunkResult {
+        private final int ordersImported;
+        private final int itemsImported;
+        private final List<Rejection> rejections;
+
+        ChunkResult(int ordersImported, int itemsImported, List<Rejection> rejections) {
+            this.ordersImported = ordersImported;
+            this.itemsImported = itemsImported;
+            this.rejections = rejections;
+        }
+
+        public int getOrdersImported() { return ordersImported; }
+        public int getItemsImported() { return itemsImported; }
+        public List<Rejection> getRejections() { return rejections; }
+    }
+
+    /**
+     * An input line that was not imported and why
+     */
+    public static class Rejection {
+        private final long line;
+        private final String reason;
+
+        public Rejection(long line, String reason) {
+            this.line = line;
+            this.reason = reason;
+        }
+
+        public long getLine() { return line; }
+        public String getReason() { return reason; }
+    }
+}
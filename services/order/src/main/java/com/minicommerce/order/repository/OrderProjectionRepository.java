@@ -0,0 +1,253 @@
+package com.minicommerce.order.repository;
+
+import com.minicommerce.order.dto.OrderDTO;
+import com.minicommerce.order.dto.OrderItemDTO;
+import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.model.SagaState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reads orders as sparse field maps for the {@code fields=} / {@code expand=items}
+ * query contract. Only the requested columns are selected, and items are loaded in
+ * one extra query only when expanded.
+ */
+@Repository
+public class OrderProjectionRepository {
+
+    /** JSON field name to orders column, in OrderDTO order */
+    private static final Map<String, String> COLUMNS = new LinkedHashMap<>();
+
+    static {
+        COLUMNS.put("id", "id");
+        COLUMNS.put("userId", "user_id");
+        COLUMNS.put("status", "status");
+        COLUMNS.put("totalAmount", "total_amount");
+        COLUMNS.put("sagaState", "saga_state");
+        COLUMNS.put("shippingAddress", "shipping_address");
+        COLUMNS.put("billingAddress", "billing_address");
+        COLUMNS.put("createdAt", "created_at");
+        COLUMNS.put("updatedAt", "updated_at");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Map<String, Object> findById(UUID orderId, Fields fields) {
+        List<Map<String, Object>> orders = query("WHERE id = ?", fields, orderId);
+        return orders.isEmpty() ? null : orders.get(0);
+    }
+
+    public List<Map<String, Object>> findByUserId(UUID userId, Fields fields) {
+        return query("WHERE user_id = ? ORDER BY created_at DESC", fields, userId);
+    }
+
+    /**
+     * Full orders by id with the validator of each, in one query; items are left
+     * unset for {@link #attachItems(Collection)} so callers can skip orders they
+     * already have a representation of
+     */
+    public Map<UUID, VersionedOrder> findVersionedByIds(Collection<UUID> orderIds) {
+        Map<UUID, VersionedOrder> orders = new HashMap<>();
+        jdbcTemplate.query(
+            "SELECT id, user_id, status, total_amount, saga_state, shipping_address, billing_address, " +
+            "created_at, updated_at, version FROM order_service.orders WHERE id = ANY(?)",
+            rs -> {
+                VersionedOrder order = versionedOrder(rs);
+                orders.put(order.getOrder().getId(), order);
+            },
+            (Object) orderIds.toArray(new UUID[0]));
+        return orders;
+    }
+
+    /**
+     * Map a full orders row with its version column, shared with statements that
+     * return the row they changed
+     */
+    static VersionedOrder versionedOrder(ResultSet rs) throws SQLException {
+        OrderDTO order = new OrderDTO();
+        order.setId(rs.getObject("id", UUID.class));
+        order.setUserId(rs.getObject("user_id", UUID.class));
+        order.setStatus(OrderStatus.valueOf(rs.getString("status")));
+        order.setTotalAmount(rs.getBigDecimal("total_amount"));
+        String sagaState = rs.getString("saga_state");
+        order.setSagaState(sagaState != null ? SagaState.valueOf(sagaState) : null);
+        order.setShippingAddress(rs.getString("shipping_address"));
+        order.setBillingAddress(rs.getString("billing_address"));
+        order.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        order.setUpdatedAt(toLocalDateTime(updatedAt));
+        return new VersionedOrder(order, OrderVersionRepository.validator(rs.getLong("version"), updatedAt));
+    }
+
+    /**
+     * Load and set the items of all {@code orders} in one query
+     */
+    public void attachItems(Collection<OrderDTO> orders) {
+        if (orders.isEmpty()) {
+            return;
+        }
+        Map<UUID, List<OrderItemDTO>> itemsByOrder = new LinkedHashMap<>();
+        for (OrderDTO order : orders) {
+            List<OrderItemDTO> items = new ArrayList<>();
+            itemsByOrder.put(order.getId(), items);
+            order.setItems(items);
+        }
+        loadItems(itemsByOrder);
+    }
+
+    /**
+     * The items of one order
+     */
+    public List<OrderItemDTO> findItems(UUID orderId) {
+        List<OrderItemDTO> items = new ArrayList<>();
+        loadItems(Map.of(orderId, items));
+        return items;
+    }
+
+    private List<Map<String, Object>> query(String where, Fields fields, Object... args) {
+        // id is always read, it is needed to attach expanded items
+        Set<String> columns = new LinkedHashSet<>();
+        columns.add("id");
+        fields.names.forEach(name -> columns.add(COLUMNS.get(name)));
+
+        List<Map<String, Object>> orders = jdbcTemplate.query(
+            "SELECT " + String.join(", ", columns) + " FROM order_service.orders " + where,
+            (rs, rowNum) -> toFieldMap(rs, fields),
+            args);
+
+        if (fields.expandItems && !orders.isEmpty()) {
+            attachItems(orders);
+        }
+        if (!fields.names.contains("id")) {
+            orders.forEach(order -> order.remove("id"));
+        }
+        return orders;
+    }
+
+    private void attachItems(List<Map<String, Object>> orders) {
+        Map<UUID, List<OrderItemDTO>> itemsByOrder = new LinkedHashMap<>();
+        for (Map<String, Object> order : orders) {
+            List<OrderItemDTO> items = new ArrayList<>();
+            itemsByOrder.put((UUID) order.get("id"), items);
+            order.put("items", items);
+        }
+        loadItems(itemsByOrder);
+    }
+
+    private void loadItems(Map<UUID, List<OrderItemDTO>> itemsByOrder) {
+        jdbcTemplate.query(
+            "SELECT order_id, id, product_id, product_name, quantity, unit_price, total_price, created_at " +
+            "FROM order_service.order_items WHERE order_id = ANY(?) ORDER BY created_at",
+            rs -> {
+                OrderItemDTO item = new OrderItemDTO();
+                item.setId(rs.getObject("id", UUID.class));
+                item.setProductId(rs.getObject("product_id", UUID.class));
+                item.setProductName(rs.getString("product_name"));
+                item.setQuantity(rs.getInt("quantity"));
+                item.setUnitPrice(rs.getBigDecimal("unit_price"));
+                item.setTotalPrice(rs.getBigDecimal("total_price"));
+                item.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+                itemsByOrder.get(rs.getObject("order_id", UUID.class)).add(item);
+            },
+            (Object) itemsByOrder.keySet().toArray(new UUID[0]));
+    }
+
+    private static Map<String, Object> toFieldMap(ResultSet rs, Fields fields) throws SQLException {
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("id", rs.getObject("id", UUID.class));
+        for (String name : fields.names) {
+            String column = COLUMNS.get(name);
+            switch (column) {
+                case "id" -> { }
+                case "user_id" -> order.put(name, rs.getObject(column, UUID.class));
+                case "total_amount" -> order.put(name, rs.getBigDecimal(column));
+                case "created_at", "updated_at" -> order.put(name, toLocalDateTime(rs.getTimestamp(column)));
+                default -> order.put(name, rs.getString(column));
+            }
+        }
+        return order;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * An order header and the validator its ETag is built from
+     */
+    public static class VersionedOrder {
+        private final OrderDTO order;
+        private final String validator;
+
+        VersionedOrder(OrderDTO order, String validator) {
+            this.order = order;
+            this.validator = validator;
+        }
+
+        public OrderDTO getOrder() { return order; }
+        public String getValidator() { return validator; }
+    }
+
+    /**
+     * Parsed {@code fields} and {@code expand} request parameters
+     */
+    public static class Fields {
+        private final Set<String> names;
+        private final boolean expandItems;
+
+        private Fields(Set<String> names, boolean expandItems) {
+            this.names = names;
+            this.expandItems = expandItems;
+        }
+
+        /**
+         * @param fields comma-separated OrderDTO field names, or null for all of them
+         * @param expand comma-separated associations to include; only "items" is supported
+         * @throws IllegalArgumentException on an unknown field or expansion
+         */
+        public static Fields parse(String fields, String expand) {
+            Set<String> names = new LinkedHashSet<>();
+            if (fields == null || fields.isBlank()) {
+                names.addAll(COLUMNS.keySet());
+            } else {
+                for (String name : fields.split(",")) {
+                    name = name.trim();
+                    if (!COLUMNS.containsKey(name)) {
+                        throw new IllegalArgumentException("Unknown field: " + name + ", expected any of " + COLUMNS.keySet());
+                    }
+                    names.add(name);
+                }
+            }
+
+            boolean expandItems = false;
+            if (expand != null && !expand.isBlank()) {
+                for (String association : expand.split(",")) {
+                    if (!association.trim().equals("items")) {
+                        throw new IllegalArgumentException("Unknown expansion: " + association.trim() + ", expected [items]");
+                    }
+                    expandItems = true;
+                }
+            }
+            return new Fields(names, expandItems);
+        }
+
+        public Set<String> getNames() { return names; }
+        public boolean isExpandItems() { return expandItems; }
+    }
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -45,9 +46,12 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     
     /**
      * Get total revenue from completed orders
+     *
+     * @deprecated scans every matching order; use RevenueRollupService#getTotalRevenue
      */
+    @Deprecated
     @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.status = :status")
-    Double getTotalRevenueByStatus(@Param("status") OrderStatus status);
+    BigDecimal getTotalRevenueByStatus(@Param("status") OrderStatus status);
     
     /**
      * Get order count by user ID
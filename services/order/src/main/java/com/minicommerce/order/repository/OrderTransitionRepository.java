@@ -0,0 +1,199 @@
+package com.minicommerce.order.repository;
+
+import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.model.SagaState;
+import com.minicommerce.order.repository.OrderProjectionRepository.VersionedOrder;
+import com.minicommerce.order.repository.SagaLeaseRepository.Lease;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Order status transitions as one conditional UPDATE instead of load-then-save.
+ * The update only applies while the order is in one of the target status's legal
+ * predecessors, so concurrent transitions of the same order cannot overwrite each
+ * other: the row lock taken by the statement orders them, and the later one sees
+ * the status the earlier one wrote.
+ */
+@Repository
+public class OrderTransitionRepository {
+
+    private static final String RETURNED_COLUMNS =
+        "o.id, o.user_id, o.status, o.total_amount, o.saga_state, o.shipping_address, " +
+        "o.billing_address, o.created_at, o.updated_at, o.version";
+
+    /**
+     * The current row is read with the lock the update needs anyway, so the status it
+     * reports is the one the transition was checked against, also when it did not apply
+     */
+    private static final String TRANSITION =
+        "WITH current_order AS (" +
+        "  SELECT id, status, saga_state FROM order_service.orders WHERE id = ? FOR NO KEY UPDATE" +
+        "), updated AS (" +
+        "  UPDATE order_service.orders o SET status = ?, saga_state = COALESCE(?, o.saga_state) " +
+        "  FROM current_order c WHERE o.id = c.id AND c.status = ANY(?) " +
+        "  RETURNING " + RETURNED_COLUMNS +
+        ") " +
+        "SELECT c.status AS previous_status, c.saga_state AS previous_saga_state, u.* " +
+        "FROM current_order c LEFT JOIN updated u ON TRUE";
+
+    /**
+     * The same transition, only applied while the lease it is made under is still the
+     * partition's current one. The lease row is share-locked, so a claim of the
+     * partition waits for the transition to commit.
+     */
+    private static final String FENCED_TRANSITION =
+        "WITH lease AS (" +
+        "  SELECT owner = ? AND epoch = ? AND lease_expires_at >= NOW() AS held " +
+        "  FROM order_service.saga_partition_leases WHERE partition_no = ? FOR SHARE" +
+        "), current_order AS (" +
+        "  SELECT id, status, saga_state FROM order_service.orders WHERE id = ? FOR NO KEY UPDATE" +
+        "), updated AS (" +
+        "  UPDATE order_service.orders o SET status = ?, saga_state = COALESCE(?, o.saga_state) " +
+        "  FROM current_order c, lease l WHERE o.id = c.id AND c.status = ANY(?) AND l.held " +
+        "  RETURNING " + RETURNED_COLUMNS +
+        ") " +
+        "SELECT c.status AS previous_status, c.saga_state AS previous_saga_state, " +
+        "COALESCE(l.held, FALSE) AS lease_held, u.* " +
+        "FROM current_order c LEFT JOIN lease l ON TRUE LEFT JOIN updated u ON TRUE";
+
+    /**
+     * The same transition for many orders. Rows are locked in id order so concurrent
+     * bulk transitions cannot deadlock, and orders that are not in a legal predecessor
+     * status once locked are skipped.
+     */
+    private static final String TRANSITION_ALL =
+        "WITH current_orders AS (" +
+        "  SELECT id, status, saga_state FROM order_service.orders WHERE id = ANY(?) AND status = ANY(?) " +
+        "  ORDER BY id FOR NO KEY UPDATE" +
+        "), updated AS (" +
+        "  UPDATE order_service.orders o SET status = ?, saga_state = COALESCE(?, o.saga_state) " +
+        "  FROM current_orders c WHERE o.id = c.id " +
+        "  RETURNING " + RETURNED_COLUMNS +
+        ") " +
+        "SELECT c.status AS previous_status, c.saga_state AS previous_saga_state, u.* " +
+        "FROM current_orders c JOIN updated u ON u.id = c.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Move an order to {@code status}, and to {@code sagaState} unless it is null,
+     * if its current status is a legal predecessor
+     *
+     * @return the outcome, or null if the order does not exist
+     */
+    public Transition transition(UUID orderId, OrderStatus status, SagaState sagaState) {
+        List<Transition> transitions = jdbcTemplate.query(TRANSITION,
+            (rs, rowNum) -> toTransition(rs, status, false),
+            orderId, status.name(), sagaState != null ? sagaState.name() : null, predecessors(status));
+        return transitions.isEmpty() ? null : transitions.get(0);
+    }
+
+    /**
+     * {@link #transition(UUID, OrderStatus, SagaState)} by a saga, which only applies
+     * while {@code lease} is still held; without a lease it is not fenced
+     *
+     * @return the outcome, or null if the order does not exist
+     */
+    public Transition transition(UUID orderId, OrderStatus status, SagaState sagaState, Lease lease) {
+        if (lease == null) {
+            return transition(orderId, status, sagaState);
+        }
+        List<Transition> transitions = jdbcTemplate.query(FENCED_TRANSITION,
+            (rs, rowNum) -> toTransition(rs, status, true),
+            lease.getOwner(), lease.getEpoch(), lease.getPartition(),
+            orderId, status.name(), sagaState != null ? sagaState.name() : null, predecessors(status));
+        return transitions.isEmpty() ? null : transitions.get(0);
+    }
+
+    /**
+     * Move every given order that is in a legal predecessor status in one statement
+     *
+     * @return the transitions that applied; orders not returned were missing or skipped
+     */
+    public List<Transition> transitionAll(Collection<UUID> orderIds, OrderStatus status, SagaState sagaState) {
+        return jdbcTemplate.query(TRANSITION_ALL,
+            (rs, rowNum) -> toTransition(rs, status, false),
+            orderIds.toArray(new UUID[0]), predecessors(status), status.name(),
+            sagaState != null ? sagaState.name() : null);
+    }
+
+    /**
+     * One page of the ids of orders in {@code statuses} created in [from, to), in id
+     * order after {@code afterId}; either bound may be null
+     */
+    public List<UUID> findIds(Collection<OrderStatus> statuses, LocalDateTime from, LocalDateTime to,
+                              UUID afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT id FROM order_service.orders WHERE status = ANY(?)");
+        args.add(statuses.stream().map(Enum::name).toArray(String[]::new));
+        if (from != null) {
+            sql.append(" AND created_at >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append(" AND created_at < ?");
+            args.add(to);
+        }
+        if (afterId != null) {
+            sql.append(" AND id > ?");
+            args.add(afterId);
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(limit);
+        return jdbcTemplate.queryForList(sql.toString(), UUID.class, args.toArray());
+    }
+
+    private static String[] predecessors(OrderStatus status) {
+        return status.predecessors().stream().map(Enum::name).toArray(String[]::new);
+    }
+
+    private static Transition toTransition(ResultSet rs, OrderStatus status, boolean fenced) throws SQLException {
+        String previousSagaState = rs.getString("previous_saga_state");
+        return new Transition(
+            OrderStatus.valueOf(rs.getString("previous_status")),
+            previousSagaState != null ? SagaState.valueOf(previousSagaState) : null,
+            status,
+            rs.getObject("id") != null ? OrderProjectionRepository.versionedOrder(rs) : null,
+            !fenced || rs.getBoolean("lease_held"));
+    }
+
+    /**
+     * Outcome of a transition attempt
+     */
+    public static class Transition {
+        private final OrderStatus previousStatus;
+        private final SagaState previousSagaState;
+        private final OrderStatus requestedStatus;
+        private final VersionedOrder order;
+        private final boolean leaseHeld;
+
+        Transition(OrderStatus previousStatus, SagaState previousSagaState, OrderStatus requestedStatus,
+                   VersionedOrder order, boolean leaseHeld) {
+            this.previousStatus = previousStatus;
+            this.previousSagaState = previousSagaState;
+            this.requestedStatus = requestedStatus;
+            this.order = order;
+            this.leaseHeld = leaseHeld;
+        }
+
+        public boolean isApplied() { return order != null; }
+        /** Status before the transition, or the conflicting current status if it did not apply */
+        public OrderStatus getPreviousStatus() { return previousStatus; }
+        public SagaState getPreviousSagaState() { return previousSagaState; }
+        public OrderStatus getRequestedStatus() { return requestedStatus; }
+        /** The updated order without items, or null if the transition did not apply */
+        public VersionedOrder getOrder() { return order; }
+        /** False if a fenced transition did not apply because its lease was lost */
+        public boolean isLeaseHeld() { return leaseHeld; }
+    }
+}
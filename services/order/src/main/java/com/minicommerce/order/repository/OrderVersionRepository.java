@@ -0,0 +1,55 @@
+package com.minicommerce.order.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Version-only lookups used to answer conditional GETs without loading orders.
+ * Validators change whenever an order row is inserted, updated or deleted, since
+ * every update bumps orders.version and updated_at through triggers.
+ */
+@Repository
+public class OrderVersionRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public Optional<String> findOrderValidator(UUID orderId) {
+        List<String> validators = jdbcTemplate.query(
+            "SELECT version, updated_at FROM order_service.orders WHERE id = ?",
+            (rs, rowNum) -> validator(rs.getLong("version"), rs.getTimestamp("updated_at")),
+            orderId);
+        return validators.stream().findFirst();
+    }
+
+    /**
+     * Validator of a user's whole order list, answered from idx_orders_user_created
+     */
+    public String findUserOrdersValidator(UUID userId) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*), COALESCE(SUM(version), 0), MAX(updated_at) FROM order_service.orders WHERE user_id = ?",
+            (rs, rowNum) -> rs.getLong(1) + "." + rs.getLong(2) + "." + micros(rs.getTimestamp(3)),
+            userId);
+    }
+
+    /**
+     * Validator of one order row, shared with reads that load the version alongside the order
+     */
+    static String validator(long version, Timestamp updatedAt) {
+        return version + "." + micros(updatedAt);
+    }
+
+    private static String micros(Timestamp timestamp) {
+        if (timestamp == null) {
+            return "0";
+        }
+        long micros = timestamp.getTime() / 1000 * 1_000_000 + timestamp.getNanos() / 1000;
+        return Long.toString(micros, 36);
+    }
+}
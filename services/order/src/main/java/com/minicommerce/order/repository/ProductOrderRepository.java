@@ -0,0 +1,119 @@
+package com.minicommerce.order.repository;
+
+import com.minicommerce.order.dto.ProductOrdersPageDTO;
+import com.minicommerce.order.dto.ProductOrdersPageDTO.OrderLine;
+import com.minicommerce.order.model.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Order lines containing a product, paged by keyset on (created_at, order_id, item id)
+ * descending. Each page is a range scan of idx_order_items_product_created, which
+ * holds the key and line columns, joined to idx_orders_id_status for status and user,
+ * so deep pages cost the same as the first one.
+ */
+@Repository
+public class ProductOrderRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Up to {@code limit} lines after {@code after}, optionally only of orders in
+     * {@code statuses} and created in [from, to)
+     */
+    public ProductOrdersPageDTO findPage(UUID productId, Cursor after, Collection<OrderStatus> statuses,
+                                         LocalDateTime from, LocalDateTime to, int limit) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(
+            "SELECT i.id, i.order_id, i.quantity, i.unit_price, i.created_at, o.user_id, o.status " +
+            "FROM order_service.order_items i JOIN order_service.orders o ON o.id = i.order_id " +
+            "WHERE i.product_id = ?");
+        args.add(productId);
+        if (after != null) {
+            sql.append(" AND (i.created_at, i.order_id, i.id) < (?, ?, ?)");
+            args.add(after.createdAt);
+            args.add(after.orderId);
+            args.add(after.itemId);
+        }
+        if (from != null) {
+            sql.append(" AND i.created_at >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append(" AND i.created_at < ?");
+            args.add(to);
+        }
+        if (statuses != null && !statuses.isEmpty()) {
+            sql.append(" AND o.status = ANY(?)");
+            args.add(statuses.stream().map(Enum::name).toArray(String[]::new));
+        }
+        // One extra row tells whether there is a next page
+        sql.append(" ORDER BY i.created_at DESC, i.order_id DESC, i.id DESC LIMIT ?");
+        args.add(limit + 1);
+
+        List<OrderLine> lines = jdbcTemplate.query(sql.toString(),
+            (rs, rowNum) -> new OrderLine(
+                rs.getObject("order_id", UUID.class),
+                rs.getObject("id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                OrderStatus.valueOf(rs.getString("status")),
+                rs.getInt("quantity"),
+                rs.getBigDecimal("unit_price"),
+                rs.getTimestamp("created_at").toLocalDateTime()),
+            args.toArray());
+
+        String nextCursor = null;
+        if (lines.size() > limit) {
+            lines = new ArrayList<>(lines.subList(0, limit));
+            OrderLine last = lines.get(limit - 1);
+            nextCursor = new Cursor(last.getCreatedAt(), last.getOrderId(), last.getItemId()).encode();
+        }
+        return new ProductOrdersPageDTO(productId, lines, nextCursor);
+    }
+
+    /**
+     * Position after the last line of a page, opaque to clients
+     */
+    public static class Cursor {
+        private final LocalDateTime createdAt;
+        private final UUID orderId;
+        private final UUID itemId;
+
+        Cursor(LocalDateTime createdAt, UUID orderId, UUID itemId) {
+            this.createdAt = createdAt;
+            this.orderId = orderId;
+            this.itemId = itemId;
+        }
+
+        String encode() {
+            String key = createdAt + "|" + orderId + "|" + itemId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @throws IllegalArgumentException if {@code cursor} was not returned by {@link #encode()}
+         */
+        public static Cursor decode(String cursor) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("Malformed cursor: " + cursor);
+                }
+                return new Cursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]), UUID.fromString(parts[2]));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Malformed cursor: " + cursor, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.minicommerce.order.repository;
+
+import com.minicommerce.order.model.OrderStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incrementally maintained revenue totals in order_service.revenue_rollups.
+ *
+ * Live increments take a shared advisory lock on the order's creation day and a
+ * backfill of that day takes it exclusively, so the two never double count.
+ */
+@Repository
+public class RevenueRollupRepository {
+
+    public enum Granularity {
+        minute,
+        hour,
+        day
+    }
+
+    private static final int DAY_LOCK_CLASS = 0x52455652; // "REVR"
+
+    private static final String TERMINAL_STATUSES = "('completed', 'failed', 'cancelled')";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Add one order's amount to its minute, hour and day buckets for {@code status}
+     * and, when it moved between terminal statuses, take it out of {@code previousStatus}.
+     */
+    public void applyTransition(LocalDateTime createdAt, OrderStatus status, OrderStatus previousStatus,
+                                long amountCents, int shard) {
+        List<Object> args = new ArrayList<>();
+        args.add(DAY_LOCK_CLASS);
+        args.add(dayLockKey(createdAt.toLocalDate()));
+        args.add(createdAt);
+        args.add(shard);
+
+        StringBuilder deltas = new StringBuilder("(?::varchar, 1::bigint, ?::bigint)");
+        args.add(status.name());
+        args.add(amountCents);
+        if (previousStatus != null && previousStatus.isTerminal() && previousStatus != status) {
+            deltas.append(", (?::varchar, -1::bigint, ?::bigint)");
+            args.add(previousStatus.name());
+            args.add(-amountCents);
+        }
+
+        jdbcTemplate.update(
+            "WITH day_lock AS (SELECT pg_advisory_xact_lock_shared(?, ?)) " +
+            "INSERT INTO order_service.revenue_rollups " +
+            "    (granularity, bucket_start, status, shard, order_count, amount_cents) " +
+            "SELECT g.granularity, date_trunc(g.granularity, ?::timestamp), d.status, ?, d.order_count, d.amount_cents " +
+            "FROM day_lock, " +
+            "     unnest(ARRAY['minute', 'hour', 'day']) AS g(granularity), " +
+            "     (VALUES " + deltas + ") AS d(status, order_count, amount_cents) " +
+            "ON CONFLICT (granularity, status, bucket_start, shard) DO UPDATE " +
+            "SET order_count = revenue_rollups.order_count + EXCLUDED.order_count, " +
+            "    amount_cents = revenue_rollups.amount_cents + EXCLUDED.amount_cents",
+            args.toArray());
+    }
+
+    /**
+     * Revenue per bucket in [from, to), optionally for a single status
+     */
+    public List<RevenueBucket> findBuckets(Granularity granularity, LocalDateTime from, LocalDateTime to,
+                                           OrderStatus status) {
+        List<Object> args = new ArrayList<>(List.of(granularity.name(), granularity.name(), from, to));
+        String statusFilter = "";
+        if (status != null) {
+            statusFilter = "AND status = ? ";
+            args.add(status.name());
+        }
+        return jdbcTemplate.query(
+            "SELECT bucket_start, status, SUM(order_count) AS order_count, SUM(amount_cents) AS amount_cents " +
+            "FROM order_service.revenue_rollups " +
+            "WHERE granularity = ? AND bucket_start >= date_trunc(?, ?::timestamp) AND bucket_start < ? " +
+            statusFilter +
+            "GROUP BY bucket_start, status " +
+            "ORDER BY bucket_start, status",
+            (rs, rowNum) -> new RevenueBucket(
+                rs.getTimestamp("bucket_start").toLocalDateTime(),
+                OrderStatus.valueOf(rs.getString("status")),
+                rs.getLong("order_count"),
+                rs.getLong("amount_cents")),
+            args.toArray());
+    }
+
+    /**
+     * Lifetime revenue of one status, summed from the day buckets
+     */
+    public long totalAmountCents(OrderStatus status) {
+        Long total = jdbcTemplate.queryForObject(
+            "SELECT COALESCE(SUM(amount_cents), 0) FROM order_service.revenue_rollups " +
+            "WHERE granularity = 'day' AND status = ?",
+            Long.class, status.name());
+        return total != null ? total : 0;
+    }
+
+    /**
+     * Creation-time range of orders that belong in the rollups, or null if there are none
+     */
+    public LocalDateTime[] findTerminalOrderRange() {
+        return jdbcTemplate.queryForObject(
+            "SELECT MIN(created_at), MAX(created_at) FROM order_service.orders WHERE status IN " + TERMINAL_STATUSES,
+            (rs, rowNum) -> rs.getTimestamp(1) == null ? null : new LocalDateTime[] {
+                rs.getTimestamp(1).toLocalDateTime(), rs.getTimestamp(2).toLocalDateTime()
+            });
+    }
+
+    /**
+     * Rebuild every bucket of one day from the orders table. Must run inside a transaction.
+     */
+    public void rebuildDay(LocalDate day) {
+        LocalDateTime start = day.atStartOfDay();
+        LocalDateTime end = day.plusDays(1).atStartOfDay();
+
+        // Waits for in-flight live increments of this day and blocks new ones until commit
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> {}, DAY_LOCK_CLASS, dayLockKey(day));
+        jdbcTemplate.update(
+            "DELETE FROM order_service.revenue_rollups WHERE bucket_start >= ? AND bucket_start < ?",
+            start, end);
+        jdbcTemplate.update(
+            "INSERT INTO order_service.revenue_rollups " +
+            "    (granularity, bucket_start, status, shard, order_count, amount_cents) " +
+            "SELECT g.granularity, date_trunc(g.granularity, o.created_at), o.status, 0, " +
+            "       COUNT(*), SUM(o.total_amount * 100)::bigint " +
+            "FROM order_service.orders o " +
+            "CROSS JOIN unnest(ARRAY['minute', 'hour', 'day']) AS g(granularity) " +
+            "WHERE o.created_at >= ? AND o.created_at < ? AND o.status IN " + TERMINAL_STATUSES + " " +
+            "GROUP BY 1, 2, 3",
+            start, end);
+    }
+
+    private static int dayLockKey(LocalDate day) {
+        return (int) day.toEpochDay();
+    }
+
+    public static class RevenueBucket {
+        private final LocalDateTime bucketStart;
+        private final OrderStatus status;
+        private final long orderCount;
+        private final long amountCents;
+
+        public RevenueBucket(LocalDateTime bucketStart, OrderStatus status, long orderCount, long amountCents) {
+            this.bucketStart = bucketStart;
+            this.status = status;
+            this.orderCount = orderCount;
+            this.amountCents = amountCents;
+        }
+
+        public LocalDateTime getBucketStart() { return bucketStart; }
+        public OrderStatus getStatus() { return status; }
+        public long getOrderCount() { return orderCount; }
+        public long getAmountCents() { return amountCents; }
+    }
+}
@@ -0,0 +1,154 @@
+package com.minicommerce.order.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Saga partition leases and replica heartbeats. All expiry checks use the database
+ * clock, so replicas with skewed clocks still agree on which leases are live.
+ */
+@Repository
+public class SagaLeaseRepository {
+
+    /**
+     * Saga partition of an order: the low 32 bits of its id, the same bits
+     * {@code SagaPartitionManager.partitionOf} uses. They are random for both
+     * random and time-ordered UUIDs.
+     */
+    private static final String PARTITION_OF_ID =
+        "mod(mod(('x' || right(id::text, 8))::bit(32)::int, ?) + ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public void createPartitions(int partitions) {
+        jdbcTemplate.update(
+            "INSERT INTO order_service.saga_partition_leases (partition_no) " +
+            "SELECT generate_series(0, ? - 1) ON CONFLICT (partition_no) DO NOTHING",
+            partitions);
+    }
+
+    /**
+     * Record that a replica is alive, forget replicas silent for ten lease periods
+     * and count those that heartbeated within one
+     */
+    public int heartbeat(String nodeId, long ttlMillis) {
+        jdbcTemplate.update(
+            "INSERT INTO order_service.saga_nodes (node_id, heartbeat_at) VALUES (?, NOW()) " +
+            "ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = NOW()",
+            nodeId);
+        jdbcTemplate.update(
+            "DELETE FROM order_service.saga_nodes WHERE heartbeat_at < NOW() - make_interval(secs => ?)",
+            ttlMillis * 10 / 1000.0);
+        Integer live = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM order_service.saga_nodes WHERE heartbeat_at >= NOW() - make_interval(secs => ?)",
+            Integer.class, ttlMillis / 1000.0);
+        return live != null ? live : 1;
+    }
+
+    /**
+     * Extend every lease the node still holds
+     *
+     * @return the leases it still holds
+     */
+    public List<Lease> renew(String nodeId, long ttlMillis) {
+        return jdbcTemplate.query(
+            "UPDATE order_service.saga_partition_leases SET lease_expires_at = NOW() + make_interval(secs => ?) " +
+            "WHERE owner = ? AND lease_expires_at >= NOW() RETURNING partition_no, epoch",
+            (rs, rowNum) -> new Lease(nodeId, rs.getInt("partition_no"), rs.getLong("epoch")),
+            ttlMillis / 1000.0, nodeId);
+    }
+
+    /**
+     * Take up to {@code limit} partitions that are unowned or whose owner stopped
+     * renewing. Every claim starts a new epoch of the partition, which fences off
+     * saga transitions by its previous owner.
+     *
+     * @return the leases acquired
+     */
+    public List<Lease> claim(String nodeId, int partitions, int limit, long ttlMillis) {
+        return jdbcTemplate.query(
+            "UPDATE order_service.saga_partition_leases l " +
+            "SET owner = ?, lease_expires_at = NOW() + make_interval(secs => ?), epoch = l.epoch + 1 " +
+            "WHERE l.partition_no IN (" +
+            "  SELECT partition_no FROM order_service.saga_partition_leases " +
+            "  WHERE partition_no < ? AND (owner IS NULL OR lease_expires_at < NOW()) " +
+            "  ORDER BY partition_no LIMIT ? FOR UPDATE SKIP LOCKED" +
+            ") RETURNING l.partition_no, l.epoch",
+            (rs, rowNum) -> new Lease(nodeId, rs.getInt("partition_no"), rs.getLong("epoch")),
+            nodeId, ttlMillis / 1000.0, partitions, limit);
+    }
+
+    public void release(String nodeId, Collection<Integer> partitions) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(
+            "UPDATE order_service.saga_partition_leases SET owner = NULL, lease_expires_at = NULL " +
+            "WHERE owner = ? AND partition_no = ANY(?)",
+            nodeId, partitions.toArray(new Integer[0]));
+    }
+
+    public void leave(String nodeId) {
+        jdbcTemplate.update(
+            "UPDATE order_service.saga_partition_leases SET owner = NULL, lease_expires_at = NULL WHERE owner = ?",
+            nodeId);
+        jdbcTemplate.update("DELETE FROM order_service.saga_nodes WHERE node_id = ?", nodeId);
+    }
+
+    /**
+     * Pending orders in the given partitions whose saga has not finished, created at
+     * least {@code minAgeMillis} ago so the creating replica had time to start them
+     */
+    public List<UUID> findPendingSagas(int partitions, Collection<Integer> owned, long minAgeMillis, int limit) {
+        return jdbcTemplate.queryForList(
+            "SELECT id FROM order_service.orders " +
+            "WHERE saga_state = 'orchestrating' AND status = 'pending' " +
+            "AND created_at < NOW() - make_interval(secs => ?) " +
+            "AND " + PARTITION_OF_ID + " = ANY(?) " +
+            "ORDER BY created_at LIMIT ?",
+            UUID.class, minAgeMillis / 1000.0, partitions, partitions, partitions,
+            owned.toArray(new Integer[0]), limit);
+    }
+
+    /**
+     * Orders in the given partitions that have been processing since at least
+     * {@code minAgeMillis} ago: sagas that started and never finished, such as on a
+     * replica that stopped
+     */
+    public List<UUID> findStalledSagas(int partitions, Collection<Integer> owned, long minAgeMillis, int limit) {
+        return jdbcTemplate.queryForList(
+            "SELECT id FROM order_service.orders " +
+            "WHERE status = 'processing' " +
+            "AND updated_at < NOW() - make_interval(secs => ?) " +
+            "AND " + PARTITION_OF_ID + " = ANY(?) " +
+            "ORDER BY updated_at LIMIT ?",
+            UUID.class, minAgeMillis / 1000.0, partitions, partitions, partitions,
+            owned.toArray(new Integer[0]), limit);
+    }
+
+    /**
+     * A partition lease as held by one node: valid while the partition is still in the
+     * epoch the node claimed it in, and the lease has not expired
+     */
+    public static class Lease {
+        private final String owner;
+        private final int partition;
+        private final long epoch;
+
+        public Lease(String owner, int partition, long epoch) {
+            this.owner = owner;
+            this.partition = partition;
+            this.epoch = epoch;
+        }
+
+        public String getOwner() { return owner; }
+        public int getPartition() { return partition; }
+        public long getEpoch() { return epoch; }
+    }
+}
@@ -0,0 +1,58 @@
+package com.minicommerce.order.repository;
+
+import com.minicommerce.order.dto.UserOrderSummaryDTO;
+import com.minicommerce.order.dto.UserOrderSummaryDTO.OrderHeader;
+import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.model.SagaState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Builds a user's order summary in one round trip. Both halves of the query are
+ * answered from idx_orders_user_created without touching order items.
+ */
+@Repository
+public class UserOrderSummaryRepository {
+
+    private static final String SUMMARY_SQL =
+        "SELECT 'status' AS kind, NULL::uuid AS id, status, NULL AS saga_state, COUNT(*) AS order_count, " +
+        "       SUM(total_amount) AS total_amount, NULL::timestamp AS created_at, NULL::timestamp AS updated_at " +
+        "FROM order_service.orders WHERE user_id = ? " +
+        "GROUP BY status " +
+        "UNION ALL " +
+        "(SELECT 'recent', id, status, saga_state, NULL, total_amount, created_at, updated_at " +
+        " FROM order_service.orders WHERE user_id = ? " +
+        " ORDER BY created_at DESC LIMIT ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public UserOrderSummaryDTO findSummary(UUID userId, int recentLimit) {
+        UserOrderSummaryDTO summary = new UserOrderSummaryDTO(userId);
+        jdbcTemplate.query(SUMMARY_SQL, rs -> {
+            OrderStatus status = OrderStatus.valueOf(rs.getString("status"));
+            if ("status".equals(rs.getString("kind"))) {
+                long count = rs.getLong("order_count");
+                summary.getCountsByStatus().put(status, count);
+                summary.setOrderCount(summary.getOrderCount() + count);
+                if (status == OrderStatus.completed) {
+                    summary.setLifetimeSpend(rs.getBigDecimal("total_amount"));
+                }
+            } else {
+                String sagaState = rs.getString("saga_state");
+                summary.getRecentOrders().add(new OrderHeader(
+                    rs.getObject("id", UUID.class),
+                    status,
+                    sagaState != null ? SagaState.valueOf(sagaState) : null,
+                    rs.getBigDecimal("total_amount"),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getTimestamp("updated_at") != null ? rs.getTimestamp("updated_at").toLocalDateTime() : null));
+            }
+        }, userId, userId, recentLimit);
+        return summary;
+    }
+}
@@ -0,0 +1,286 @@
+package com.minicommerce.order.service;
+
+import com.minicommerce.order.jdbc.ConnectionLimitingDataSourcePostProcessor.ConnectionLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides whether a new order may be accepted given the current saga backlog,
+ * connection pool saturation and downstream health.
+ *
+ * Overloaded requests wait briefly for capacity and are shed after that.
+ * Retries of earlier attempts are given more headroom than new orders, so they
+ * keep getting through after new orders have started to be shed.
+ */
+@Service
+public class AdmissionGate {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionGate.class);
+
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    public enum Lane {
+        retry,
+        fresh
+    }
+
+    private final boolean enabled;
+    private final int maxInFlightSagas;
+    private final double maxPoolUtilization;
+    private final double retryHeadroom;
+    private final long queueTimeoutNanos;
+    private final int maxQueued;
+    private final long retryAfterSeconds;
+    private final long sagaTimeoutNanos;
+    private final int circuitFailureThreshold;
+    private final long circuitOpenNanos;
+
+    private final HikariPoolMXBean pool;
+    private final int poolSize;
+    private final ConnectionLimitingDataSource limiter;
+
+    private final Map<UUID, Long> inFlightSagas = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger consecutiveDownstreamFailures = new AtomicInteger();
+    private final AtomicLong circuitOpenUntil = new AtomicLong();
+
+    private final ReentrantLock capacityLock = new ReentrantLock();
+    private final Condition capacityFreed = capacityLock.newCondition();
+
+    private final Map<Lane, Counter> admitted = new EnumMap<>(Lane.class);
+    private final Map<Lane, Counter> admittedAfterWait = new EnumMap<>(Lane.class);
+    private final Map<Lane, Counter> shed = new EnumMap<>(Lane.class);
+
+    public AdmissionGate(DataSource dataSource,
+                         MeterRegistry meterRegistry,
+                         @Value("${order.admission.enabled:true}") boolean enabled,
+                         @Value("${order.admission.max-in-flight-sagas:2000}") int maxInFlightSagas,
+                         @Value("${order.admission.max-pool-utilization:0.9}") double maxPoolUtilization,
+                         @Value("${order.admission.retry-headroom:0.25}") double retryHeadroom,
+                         @Value("${order.admission.queue-timeout-ms:50}") long queueTimeoutMillis,
+                         @Value("${order.admission.max-queued:200}") int maxQueued,
+                         @Value("${order.admission.retry-after-seconds:1}") long retryAfterSeconds,
+                         @Value("${order.admission.circuit.failure-threshold:20}") int circuitFailureThreshold,
+                         @Value("${order.admission.circuit.open-ms:10000}") long circuitOpenMillis,
+                         @Value("${saga.timeout:300000}") long sagaTimeoutMillis) {
+        this.enabled = enabled;
+        this.maxInFlightSagas = maxInFlightSagas;
+        this.maxPoolUtilization = maxPoolUtilization;
+        this.retryHeadroom = retryHeadroom;
+        this.queueTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(queueTimeoutMillis);
+        this.maxQueued = maxQueued;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.sagaTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sagaTimeoutMillis);
+        this.circuitFailureThreshold = circuitFailureThreshold;
+        this.circuitOpenNanos = TimeUnit.MILLISECONDS.toNanos(circuitOpenMillis);
+
+        HikariDataSource hikari = unwrap(dataSource, HikariDataSource.class);
+        this.pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        this.poolSize = hikari != null ? hikari.getMaximumPoolSize() : 0;
+        this.limiter = unwrap(dataSource, ConnectionLimitingDataSource.class);
+
+        for (Lane lane : Lane.values()) {
+            admitted.put(lane, Counter.builder("order.admission")
+                .tag("lane", lane.name()).tag("outcome", "admitted").register(meterRegistry));
+            admittedAfterWait.put(lane, Counter.builder("order.admission")
+                .tag("lane", lane.name()).tag("outcome", "queued").register(meterRegistry));
+            shed.put(lane, Counter.builder("order.admission")
+                .tag("lane", lane.name()).tag("outcome", "shed").register(meterRegistry));
+        }
+        Gauge.builder("order.admission.in_flight_sagas", inFlightSagas, Map::size)
+            .description("Sagas started and not yet completed or failed")
+            .register(meterRegistry);
+        Gauge.builder("order.admission.queued", queued, AtomicInteger::get)
+            .description("Order requests waiting for admission")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Admit or shed an order request, waiting up to the queue timeout for capacity.
+     */
+    public Decision admit(Lane lane) {
+        if (!enabled) {
+            return Decision.ADMITTED;
+        }
+
+        String reason = overloadReason(lane);
+        if (reason == null) {
+            admitted.get(lane).increment();
+            return Decision.ADMITTED;
+        }
+
+        // Waiting does not help while downstreams are failing
+        if (!isCircuitOpen()) {
+            try {
+                if (queued.incrementAndGet() > maxQueued) {
+                    reason = "admission queue full";
+                } else {
+                    reason = awaitCapacity(lane);
+                    if (reason == null) {
+                        admittedAfterWait.get(lane).increment();
+                        return Decision.ADMITTED;
+                    }
+                }
+            } finally {
+                queued.decrementAndGet();
+            }
+        }
+
+        shed.get(lane).increment();
+        logger.warn("Shedding {} order request: {}", lane, reason);
+        return Decision.shed(reason, retryAfterSeconds());
+    }
+
+    private String awaitCapacity(Lane lane) {
+        long deadline = System.nanoTime() + queueTimeoutNanos;
+        String reason = overloadReason(lane);
+        capacityLock.lock();
+        try {
+            while (reason != null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return reason;
+                }
+                // Pool saturation is not signalled, so re-check periodically as well
+                capacityFreed.awaitNanos(Math.min(remaining, POLL_NANOS));
+                reason = overloadReason(lane);
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "interrupted while waiting for admission";
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    private String overloadReason(Lane lane) {
+        if (isCircuitOpen()) {
+            return "downstream circuit open";
+        }
+        double headroom = lane == Lane.retry ? 1.0 + retryHeadroom : 1.0;
+        if (inFlightSagas.size() >= maxInFlightSagas * headroom) {
+            return "saga backlog " + inFlightSagas.size();
+        }
+        if (pool != null && poolSize > 0) {
+            double utilization = (double) pool.getActiveConnections() / poolSize;
+            // With the JDBC limiter, threads wait for a permit before they reach the pool
+            int waiting = pool.getThreadsAwaitingConnection() + (limiter != null ? limiter.getThreadsWaiting() : 0);
+            if (waiting > 0 && utilization >= Math.min(maxPoolUtilization * headroom, 1.0)) {
+                return "connection pool saturated";
+            }
+        }
+        return null;
+    }
+
+    private long retryAfterSeconds() {
+        long openFor = circuitOpenUntil.get() - System.nanoTime();
+        if (openFor > 0) {
+            return Math.max(retryAfterSeconds, TimeUnit.NANOSECONDS.toSeconds(openFor) + 1);
+        }
+        return retryAfterSeconds;
+    }
+
+    // Saga backlog tracking
+
+    public void sagaStarted(UUID orderId) {
+        inFlightSagas.put(orderId, System.nanoTime());
+    }
+
+    public void sagaFinished(UUID orderId) {
+        if (inFlightSagas.remove(orderId) != null) {
+            signalCapacity();
+        }
+    }
+
+    /**
+     * Forget sagas that never reported completion so they do not hold capacity forever.
+     */
+    @Scheduled(fixedDelayString = "${order.admission.sweep-interval-ms:60000}")
+    public void expireStaleSagas() {
+        long cutoff = System.nanoTime() - sagaTimeoutNanos;
+        if (inFlightSagas.values().removeIf(startedAt -> startedAt < cutoff)) {
+            signalCapacity();
+        }
+    }
+
+    // Downstream circuit
+
+    public void downstreamSucceeded() {
+        consecutiveDownstreamFailures.set(0);
+    }
+
+    public void downstreamFailed() {
+        if (consecutiveDownstreamFailures.incrementAndGet() >= circuitFailureThreshold) {
+            consecutiveDownstreamFailures.set(0);
+            circuitOpenUntil.set(System.nanoTime() + circuitOpenNanos);
+            logger.warn("Opening downstream circuit for {} ms", TimeUnit.NANOSECONDS.toMillis(circuitOpenNanos));
+        }
+    }
+
+    private boolean isCircuitOpen() {
+        return circuitOpenUntil.get() - System.nanoTime() > 0;
+    }
+
+    private void signalCapacity() {
+        capacityLock.lock();
+        try {
+            capacityFreed.signalAll();
+        } finally {
+            capacityLock.unlock();
+        }
+    }
+
+    private static <T> T unwrap(DataSource dataSource, Class<T> type) {
+        try {
+            if (dataSource.isWrapperFor(type)) {
+                return dataSource.unwrap(type);
+            }
+        } catch (SQLException e) {
+            logger.warn("Could not inspect data source for pool metrics", e);
+        }
+        return null;
+    }
+
+    public static class Decision {
+        static final Decision ADMITTED = new Decision(true, null, 0);
+
+        private final boolean admitted;
+        private final String reason;
+        private final long retryAfterSeconds;
+
+        private Decision(boolean admitted, String reason, long retryAfterSeconds) {
+            this.admitted = admitted;
+            this.reason = reason;
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+
+        static Decision shed(String reason, long retryAfterSeconds) {
+            return new Decision(false, reason, retryAfterSeconds);
+        }
+
+        public boolean isAdmitted() { return admitted; }
+        public String getReason() { return reason; }
+        public long getRetryAfterSeconds() { return retryAfterSeconds; }
+    }
+}
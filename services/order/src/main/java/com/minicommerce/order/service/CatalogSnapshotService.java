@@ -0,0 +1,160 @@
+package com.minicommerce.order.service;
+
+import com.minicommerce.order.catalog.ProductTable;
+import com.minicommerce.order.repository.CatalogProductRepository;
+import com.minicommerce.order.repository.CatalogProductRepository.Changes;
+import com.minicommerce.order.service.OrderService.OrderItemRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local snapshot of product names, prices and active flags, so order lines can be
+ * checked against the catalog without a remote call per line. The snapshot is loaded
+ * in full once and then follows the catalog by polling for products changed since the
+ * latest updated_at seen. It can lag the catalog by a poll interval: a product created
+ * or repriced since the last poll is reported as unknown or mismatched until then.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    @Autowired
+    private CatalogProductRepository catalogProductRepository;
+
+    private final boolean enabled;
+    private final boolean enforce;
+    private final long lookbackMillis;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> mismatches = new ConcurrentHashMap<>();
+
+    private volatile ProductTable products = ProductTable.EMPTY;
+    private volatile boolean loaded;
+    private volatile long refreshedAt;
+    private LocalDateTime watermark;
+
+    public CatalogSnapshotService(MeterRegistry meterRegistry,
+                                  @Value("${order.catalog.enabled:true}") boolean enabled,
+                                  @Value("${order.catalog.enforce:false}") boolean enforce,
+                                  @Value("${order.catalog.lookback-ms:5000}") long lookbackMillis) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.enforce = enforce;
+        this.lookbackMillis = lookbackMillis;
+
+        Gauge.builder("order.catalog.products", this, service -> service.products.size())
+            .description("Products in the local catalog snapshot")
+            .register(meterRegistry);
+        Gauge.builder("order.catalog.age", this, CatalogSnapshotService::ageSeconds)
+            .description("Seconds since the catalog snapshot was last refreshed, NaN before it is loaded")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    /**
+     * Load the snapshot if it is not loaded yet, otherwise apply the products changed
+     * since the last refresh. Rows are re-read from a little before the watermark because
+     * updated_at is stamped before commit, so a slow transaction can commit a change
+     * stamped earlier than one already seen; applying a product twice is harmless.
+     */
+    @Scheduled(fixedDelayString = "${order.catalog.poll-interval-ms:10000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (!loaded) {
+                Changes all = catalogProductRepository.findAll();
+                products = ProductTable.of(all.getProducts());
+                watermark = all.getWatermark();
+                refreshedAt = System.nanoTime();
+                loaded = true;
+                logger.info("Loaded catalog snapshot of {} products", products.size());
+            } else {
+                Changes changes = watermark != null
+                    ? catalogProductRepository.findChangedSince(watermark.minusNanos(TimeUnit.MILLISECONDS.toNanos(lookbackMillis)))
+                    : catalogProductRepository.findAll();
+                if (!changes.getProducts().isEmpty()) {
+                    products = products.withChanges(changes.getProducts());
+                    if (watermark == null || (changes.getWatermark() != null && changes.getWatermark().isAfter(watermark))) {
+                        watermark = changes.getWatermark();
+                    }
+                    logger.debug("Applied {} catalog changes up to {}", changes.getProducts().size(), watermark);
+                }
+                refreshedAt = System.nanoTime();
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh catalog snapshot, keeping the one from {} s ago: {}",
+                Math.round(ageSeconds()), e.getMessage());
+        }
+    }
+
+    /**
+     * Check order lines against the snapshot. Lines for unknown or inactive products or
+     * with a unit price other than the catalog price are counted, and rejected when
+     * enforcement is on. Nothing is checked until the snapshot has loaded.
+     *
+     * @throws IllegalArgumentException if enforcement is on and a line does not match
+     */
+    public void validate(List<OrderItemRequest> items) {
+        if (!enabled || !loaded) {
+            return;
+        }
+        ProductTable table = products;
+        for (OrderItemRequest item : items) {
+            String mismatch = mismatch(table, item);
+            if (mismatch == null) {
+                continue;
+            }
+            mismatches.computeIfAbsent(mismatch, reason -> Counter.builder("order.catalog.mismatches")
+                .description("Order lines that did not match the local catalog snapshot")
+                .tag("reason", reason)
+                .register(meterRegistry)).increment();
+            if (enforce) {
+                throw new IllegalArgumentException("Product " + item.getProductId() + " does not match the catalog: " + mismatch);
+            }
+            logger.warn("Order line for product {} does not match the catalog: {}", item.getProductId(), mismatch);
+        }
+    }
+
+    private static String mismatch(ProductTable table, OrderItemRequest item) {
+        int slot = item.getProductId() != null ? table.find(item.getProductId()) : -1;
+        if (slot < 0) {
+            return "unknown";
+        }
+        if (!table.isActive(slot)) {
+            return "inactive";
+        }
+        BigDecimal unitPrice = item.getUnitPrice();
+        if (unitPrice == null || unitPrice.movePointRight(2).compareTo(BigDecimal.valueOf(table.priceCents(slot))) != 0) {
+            return "price";
+        }
+        return null;
+    }
+
+    private double ageSeconds() {
+        return loaded ? (System.nanoTime() - refreshedAt) / 1e9 : Double.NaN;
+    }
+}
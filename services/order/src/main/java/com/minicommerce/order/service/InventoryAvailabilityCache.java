@@ -0,0 +1,236 @@
+package com.minicommerce.order.service;
+
+import com.minicommerce.order.repository.InventoryAvailabilityRepository;
+import com.minicommerce.order.repository.InventoryAvailabilityRepository.Changes;
+import com.minicommerce.order.service.OrderService.OrderItemRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Near-cache of available stock per product, so carts that are clearly out of stock
+ * are rejected before the order is stored and a saga started. The cache only filters:
+ * the saga's reservation stays the authority, and products without a cached row or a
+ * cache older than its maximum age always pass.
+ *
+ * <p>Two kinds of mistakes are counted. A stale admission is an order that passed the
+ * check and then failed its reservation for lack of stock. A stale rejection is a
+ * product of a rejected cart that had enough stock at the next refresh, which also
+ * counts restocks right after the rejection.
+ */
+@Service
+public class InventoryAvailabilityCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryAvailabilityCache.class);
+
+    @Autowired
+    private InventoryAvailabilityRepository inventoryAvailabilityRepository;
+
+    private final boolean enabled;
+    private final long maxAgeNanos;
+    private final long lookbackMillis;
+    private final Map<UUID, Integer> available = new ConcurrentHashMap<>();
+    private final Queue<Rejection> unverifiedRejections;
+    private final Counter passed;
+    private final Counter rejected;
+    private final Counter skipped;
+    private final Counter staleAdmissions;
+    private final Counter staleRejections;
+
+    private volatile boolean loaded;
+    private volatile long refreshedAt;
+    private LocalDateTime watermark;
+
+    public InventoryAvailabilityCache(MeterRegistry meterRegistry,
+                                      @Value("${order.inventory-cache.enabled:true}") boolean enabled,
+                                      @Value("${order.inventory-cache.max-age-ms:5000}") long maxAgeMillis,
+                                      @Value("${order.inventory-cache.lookback-ms:2000}") long lookbackMillis,
+                                      @Value("${order.inventory-cache.verify-capacity:1024}") int verifyCapacity) {
+        this.enabled = enabled;
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        this.lookbackMillis = lookbackMillis;
+        this.unverifiedRejections = new ArrayBlockingQueue<>(Math.max(verifyCapacity, 1));
+
+        Gauge.builder("order.inventory_cache.products", available, Map::size)
+            .description("Products with cached available stock")
+            .register(meterRegistry);
+        Gauge.builder("order.inventory_cache.age", this, InventoryAvailabilityCache::ageSeconds)
+            .description("Seconds since the inventory near-cache was last refreshed, NaN before it is loaded")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        this.passed = precheckCounter(meterRegistry, "passed");
+        this.rejected = precheckCounter(meterRegistry, "rejected");
+        this.skipped = precheckCounter(meterRegistry, "skipped");
+        this.staleAdmissions = mistakeCounter(meterRegistry, "stale_admission");
+        this.staleRejections = mistakeCounter(meterRegistry, "stale_rejection");
+    }
+
+    private static Counter precheckCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("order.inventory_cache.prechecks")
+            .description("Carts checked against cached stock before the order is stored")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private static Counter mistakeCounter(MeterRegistry meterRegistry, String kind) {
+        return Counter.builder("order.inventory_cache.mistakes")
+            .description("Prechecks the saga's reservation or a later refresh showed to be wrong")
+            .tag("kind", kind)
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    /**
+     * Load the cache if it is not loaded yet, otherwise apply the stock changed since
+     * the last refresh, then verify the rejections made before this refresh started
+     */
+    @Scheduled(fixedDelayString = "${order.inventory-cache.poll-interval-ms:1000}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        try {
+            Changes changes = loaded && watermark != null
+                ? inventoryAvailabilityRepository.findChangedSince(
+                    watermark.minusNanos(TimeUnit.MILLISECONDS.toNanos(lookbackMillis)))
+                : inventoryAvailabilityRepository.findAll();
+            available.putAll(changes.getAvailable());
+            if (watermark == null || (changes.getWatermark() != null && changes.getWatermark().isAfter(watermark))) {
+                watermark = changes.getWatermark();
+            }
+            refreshedAt = startedAt;
+            if (!loaded) {
+                loaded = true;
+                logger.info("Loaded inventory near-cache of {} products", available.size());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh inventory near-cache: {}", e.getMessage());
+            return;
+        }
+        verifyRejections(startedAt);
+    }
+
+    private void verifyRejections(long refreshStartedAt) {
+        Rejection rejection;
+        while ((rejection = unverifiedRejections.peek()) != null && rejection.rejectedAt - refreshStartedAt < 0) {
+            unverifiedRejections.poll();
+            if (available.getOrDefault(rejection.productId, Integer.MAX_VALUE) >= rejection.quantity) {
+                staleRejections.increment();
+            }
+        }
+    }
+
+    /**
+     * Reject a cart whose quantity of some product exceeds its cached available stock.
+     * Quantities of lines for the same product are added up.
+     *
+     * @throws OutOfStockException if the cache shows too little stock for some product
+     */
+    public void precheck(List<OrderItemRequest> items) {
+        if (!enabled || !loaded || System.nanoTime() - refreshedAt > maxAgeNanos) {
+            skipped.increment();
+            return;
+        }
+        Map<UUID, Integer> quantities = new LinkedHashMap<>();
+        for (OrderItemRequest item : items) {
+            if (item.getProductId() != null && item.getQuantity() != null) {
+                quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+            }
+        }
+        List<UUID> outOfStock = new ArrayList<>();
+        long now = System.nanoTime();
+        for (Map.Entry<UUID, Integer> line : quantities.entrySet()) {
+            Integer stock = available.get(line.getKey());
+            if (stock != null && stock < line.getValue()) {
+                outOfStock.add(line.getKey());
+                // Dropped when the queue is full, so verification samples the rejections at peak
+                unverifiedRejections.offer(new Rejection(line.getKey(), line.getValue(), now));
+            }
+        }
+        if (outOfStock.isEmpty()) {
+            passed.increment();
+            return;
+        }
+        rejected.increment();
+        throw new OutOfStockException(outOfStock);
+    }
+
+    /**
+     * Record a failed reservation of an order the cache let through
+     */
+    public void reservationFailed(Throwable error) {
+        if (enabled && loaded && isOutOfStock(error)) {
+            staleAdmissions.increment();
+        }
+    }
+
+    /** The inventory service reports missing stock as "Insufficient stock" */
+    private static boolean isOutOfStock(Throwable error) {
+        String message = error instanceof WebClientResponseException response
+            ? response.getResponseBodyAsString() : error.getMessage();
+        return message != null && message.toLowerCase().contains("insufficient stock");
+    }
+
+    private double ageSeconds() {
+        return loaded ? (System.nanoTime() - refreshedAt) / 1e9 : Double.NaN;
+    }
+
+    private static class Rejection {
+        private final UUID productId;
+        private final int quantity;
+        private final long rejectedAt;
+
+        Rejection(UUID productId, int quantity, long rejectedAt) {
+            this.productId = productId;
+            this.quantity = quantity;
+            this.rejectedAt = rejectedAt;
+        }
+    }
+
+    public static class OutOfStockException extends IllegalStateException {
+        private final List<UUID> productIds;
+
+        public OutOfStockException(List<UUID> productIds) {
+            super("Not enough stock of products " + productIds);
+            this.productIds = productIds;
+        }
+
+        public List<UUID> getProductIds() { return productIds; }
+    }
+
+    public static class OutOfStock {
+        private final List<UUID> productIds;
+
+        public OutOfStock(OutOfStockException exception) {
+            this.productIds = exception.getProductIds();
+        }
+
+        public List<UUID> getProductIds() { return productIds; }
+    }
+}
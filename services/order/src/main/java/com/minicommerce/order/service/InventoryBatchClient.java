@@ -0,0 +1,118 @@
+package com.minicommerce.order.service;
+
+import com.minicommerce.order.batch.MicroBatcher;
+import com.minicommerce.order.event.ReservationData;
+import com.minicommerce.order.service.SagaOrchestrator.InventoryReservationRequest;
+import com.minicommerce.order.service.SagaOrchestrator.InventoryReservationResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sends inventory reservations for concurrent sagas as bulk requests.
+ */
+@Service
+public class InventoryBatchClient {
+
+    private final boolean enabled;
+    private final MicroBatcher<InventoryReservationRequest, BulkReservationResult> reservationBatcher;
+
+    public InventoryBatchClient(WebClient.Builder webClientBuilder,
+                                MeterRegistry meterRegistry,
+                                @Value("${services.inventory.url}") String inventoryUrl,
+                                @Value("${saga.inventory-batch.enabled:false}") boolean enabled,
+                                @Value("${saga.inventory-batch.window-ms:3}") long windowMillis,
+                                @Value("${saga.inventory-batch.max-size:100}") int maxBatchSize) {
+        WebClient inventoryClient = webClientBuilder.clone().baseUrl(inventoryUrl).build();
+        this.enabled = enabled;
+        this.reservationBatcher = new MicroBatcher<>(
+            "inventory-reserve",
+            windowMillis,
+            maxBatchSize,
+            requests -> inventoryClient.post()
+                .uri("/api/inventory/reserve/bulk")
+                .bodyValue(new BulkReservationRequest(requests))
+                .retrieve()
+                .bodyToMono(BulkReservationResponse.class)
+                .map(BulkReservationResponse::getResults),
+            meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserve inventory for one order as part of the next bulk request.
+     * Fails with the inventory service's reason if this order could not be reserved.
+     */
+    public Mono<InventoryReservationResponse> reserve(InventoryReservationRequest request) {
+        return reservationBatcher.submit(request)
+            .flatMap(result -> {
+                if (!result.isSuccess()) {
+                    return Mono.error(new RuntimeException(result.getReason() != null
+                        ? result.getReason() : "Reservation rejected"));
+                }
+                InventoryReservationResponse response = new InventoryReservationResponse();
+                response.setReservationId(result.getReservationId());
+                response.setReservations(result.getReservations());
+                return Mono.just(response);
+            });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reservationBatcher.close();
+    }
+
+    // Request/Response classes
+    public static class BulkReservationRequest {
+        private List<InventoryReservationRequest> reservations;
+
+        public BulkReservationRequest() {}
+        public BulkReservationRequest(List<InventoryReservationRequest> reservations) {
+            this.reservations = reservations;
+        }
+
+        public List<InventoryReservationRequest> getReservations() { return reservations; }
+        public void setReservations(List<InventoryReservationRequest> reservations) { this.reservations = reservations; }
+    }
+
+    public static class BulkReservationResponse {
+        private List<BulkReservationResult> results;
+
+        public BulkReservationResponse() {}
+        public BulkReservationResponse(List<BulkReservationResult> results) {
+            this.results = results;
+        }
+
+        public List<BulkReservationResult> getResults() { return results; }
+        public void setResults(List<BulkReservationResult> results) { this.results = results; }
+    }
+
+    public static class BulkReservationResult {
+        private UUID orderId;
+        private boolean success;
+        private UUID reservationId;
+        private List<ReservationData> reservations;
+        private String reason;
+
+        // Getters and setters
+        public UUID getOrderId() { return orderId; }
+        public void setOrderId(UUID orderId) { this.orderId = orderId; }
+        public boolean isSuccess() { return success; }
+        public void setSuccess(boolean success) { this.success = success; }
+        public UUID getReservationId() { return reservationId; }
+        public void setReservationId(UUID reservationId) { this.reservationId = reservationId; }
+        public List<ReservationData> getReservations() { return reservations; }
+        public void setReservations(List<ReservationData> reservations) { this.reservations = reservations; }
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+    }
+}
@@ -0,0 +1,181 @@
+package com.minicommerce.order.service;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.minicommerce.order.event.OrderStatusChangedEvent;
+import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.model.SagaState;
+import com.minicommerce.order.repository.OrderTransitionRepository;
+import com.minicommerce.order.repository.OrderTransitionRepository.Transition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Status transitions of many orders at once for incident cleanup. Orders are
+ * selected by id or by a status and creation-time filter and moved in chunks, each
+ * chunk with one set-based UPDATE in its own transaction, so a large request never
+ * holds locks on all of its orders. Cancelled and failed orders get the saga state
+ * SagaOrchestrator#stoppedSagaState gives them in the same UPDATE. After each
+ * chunk commits their sagas end, and the reservations of those stopped mid-saga
+ * are released in the background.
+ */
+@Service
+public class OrderBulkTransitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderBulkTransitionService.class);
+
+    @Autowired
+    private OrderTransitionRepository orderTransitionRepository;
+
+    @Autowired
+    private SagaOrchestrator sagaOrchestrator;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxIds;
+
+    public OrderBulkTransitionService(PlatformTransactionManager transactionManager,
+                                      @Value("${order.bulk.chunk-size:500}") int chunkSize,
+                                      @Value("${order.bulk.max-ids:10000}") int maxIds) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * Move the selected orders to {@code status}. Orders that are missing or whose
+     * status cannot move to {@code status} are counted as skipped.
+     *
+     * @throws IllegalArgumentException if the request selects no orders or too many ids
+     */
+    public BulkTransitionResult transition(BulkTransitionRequest request, OrderStatus status) {
+        BulkTransitionResult result = new BulkTransitionResult(status);
+        if (request.getIds() != null && !request.getIds().isEmpty()) {
+            if (request.getFilter() != null) {
+                throw new IllegalArgumentException("Give either ids or a filter, not both");
+            }
+            Set<UUID> ids = new LinkedHashSet<>(request.getIds());
+            if (ids.contains(null)) {
+                throw new IllegalArgumentException("Order ids must not be null");
+            }
+            if (ids.size() > maxIds) {
+                throw new IllegalArgumentException("At most " + maxIds + " order ids per request");
+            }
+            List<UUID> chunk = new ArrayList<>(chunkSize);
+            for (UUID id : ids) {
+                chunk.add(id);
+                if (chunk.size() == chunkSize) {
+                    transitionChunk(chunk, status, result);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                transitionChunk(chunk, status, result);
+            }
+        } else if (request.getFilter() != null && request.getFilter().getStatus() != null
+                && !request.getFilter().getStatus().isEmpty()) {
+            Filter filter = request.getFilter();
+            UUID afterId = null;
+            List<UUID> chunk;
+            do {
+                chunk = orderTransitionRepository.findIds(
+                    filter.getStatus(), filter.getCreatedFrom(), filter.getCreatedTo(), afterId, chunkSize);
+                if (!chunk.isEmpty()) {
+                    transitionChunk(chunk, status, result);
+                    afterId = chunk.get(chunk.size() - 1);
+                }
+            } while (chunk.size() == chunkSize);
+        } else {
+            throw new IllegalArgumentException("Give order ids or a filter with at least one status");
+        }
+
+        logger.info("Bulk transition to {}: {} orders affected, {} skipped, {} compensations queued, reason: {}",
+            status, result.getAffected(), result.getSkipped(), result.getCompensations(), request.getReason());
+        return result;
+    }
+
+    private void transitionChunk(List<UUID> orderIds, OrderStatus status, BulkTransitionResult result) {
+        SagaState sagaState = SagaOrchestrator.stoppedSagaState(status);
+        List<Transition> transitions = transactionTemplate.execute(tx -> {
+            List<Transition> applied = orderTransitionRepository.transitionAll(orderIds, status, sagaState);
+            for (Transition transition : applied) {
+                eventPublisher.publishEvent(
+                    OrderStatusChangedEvent.of(transition.getOrder().getOrder(), transition.getPreviousStatus()));
+            }
+            return applied;
+        });
+
+        // Steps still in flight find their orders stopped and undo what they did
+        int compensations = sagaState != null ? sagaOrchestrator.sagasStopped(transitions) : 0;
+
+        result.matched += orderIds.size();
+        result.affected += transitions.size();
+        result.compensations += compensations;
+    }
+
+    // Request/Response classes
+    public static class BulkTransitionRequest {
+        private List<UUID> ids;
+        private Filter filter;
+        private String reason;
+
+        // Getters and setters
+        public List<UUID> getIds() { return ids; }
+        public void setIds(List<UUID> ids) { this.ids = ids; }
+        public Filter getFilter() { return filter; }
+        public void setFilter(Filter filter) { this.filter = filter; }
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+    }
+
+    public static class Filter {
+        private Set<OrderStatus> status;
+        @JsonProperty("created_from")
+        private LocalDateTime createdFrom;
+        @JsonProperty("created_to")
+        private LocalDateTime createdTo;
+
+        // Getters and setters
+        public Set<OrderStatus> getStatus() { return status; }
+        public void setStatus(Set<OrderStatus> status) { this.status = status; }
+        public LocalDateTime getCreatedFrom() { return createdFrom; }
+        public void setCreatedFrom(LocalDateTime createdFrom) { this.createdFrom = createdFrom; }
+        public LocalDateTime getCreatedTo() { return createdTo; }
+        public void setCreatedTo(LocalDateTime createdTo) { this.createdTo = createdTo; }
+    }
+
+    public static class BulkTransitionResult {
+        private final OrderStatus status;
+        private int matched;
+        private int affected;
+        private int compensations;
+
+        BulkTransitionResult(OrderStatus status) {
+            this.status = status;
+        }
+
+        public OrderStatus getStatus() { return status; }
+        /** Orders requested by id or matched by the filter */
+        public int getMatched() { return matched; }
+        public int getAffected() { return affected; }
+        /** Orders missing or not in a status that can move to the requested one */
+        public int getSkipped() { return matched - affected; }
+        /** Inventory releases queued for orders stopped mid-saga */
+        public int getCompensations() { return compensations; }
+    }
+}
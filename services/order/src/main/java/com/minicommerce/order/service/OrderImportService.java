@@ -0,0 +1,276 @@
+package com.minicommerce.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.minicommerce.order.dto.ImportedOrderDTO;
+import com.minicommerce.order.id.UuidVersion;
+import com.minicommerce.order.repository.OrderImportRepository;
+import com.minicommerce.order.repository.OrderImportRepository.ChunkResult;
+import com.minicommerce.order.repository.OrderImportRepository.Rejection;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bulk import of historical orders from NDJSON, one order with its items per line.
+ * Input is cut into chunks of a fixed number of lines that are imported in parallel,
+ * each in its own transaction through OrderImportRepository. Committed chunks are
+ * recorded, so sending the same input again under the same import id resumes an
+ * interrupted import. Imported orders bypass the order events, so revenue rollups
+ * need a backfill afterwards. Only orders whose saga has finished are accepted, so
+ * none of them is picked up and run as a live saga.
+ */
+@Service
+public class OrderImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderImportService.class);
+
+    private static final int MAX_REPORTED_REJECTIONS = 100;
+
+    @Autowired
+    private OrderImportRepository orderImportRepository;
+
+    private final ObjectReader orderReader;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultChunkSize;
+    private final int parallelism;
+    private final UuidVersion idVersion;
+    private final ExecutorService importExecutor;
+    private final Map<String, ImportStatus> imports = new ConcurrentHashMap<>();
+
+    public OrderImportService(ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${order.import.chunk-size:5000}") int chunkSize,
+                              @Value("${order.import.parallelism:4}") int parallelism,
+                              @Value("${order.ids.version:time_ordered}") UuidVersion idVersion) {
+        this.orderReader = objectMapper.readerFor(ImportedOrderDTO.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.defaultChunkSize = Math.max(chunkSize, 1);
+        this.parallelism = Math.max(parallelism, 1);
+        this.idVersion = idVersion;
+        this.importExecutor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "order-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Import all lines of {@code input}, returning once every chunk has finished.
+     * Chunks already committed under {@code importId} are skipped without parsing.
+     *
+     * @throws IllegalStateException if an import with the same id is still running
+     */
+    public ImportStatus importOrders(String importId, InputStream input) throws IOException {
+        Integer recordedChunkSize = orderImportRepository.findChunkSize(importId);
+        int chunkSize = recordedChunkSize != null ? recordedChunkSize : defaultChunkSize;
+        ImportStatus status = new ImportStatus(importId, chunkSize);
+        ImportStatus running = imports.putIfAbsent(importId, status);
+        if (running != null) {
+            if (!running.isFinished()) {
+                throw new IllegalStateException("Import is already running: " + importId);
+            }
+            imports.put(importId, status);
+        }
+
+        Set<Integer> completedChunks = orderImportRepository.findCompletedChunks(importId);
+        logger.info("Starting order import {} with chunks of {} lines, {} chunks already done",
+            importId, chunkSize, completedChunks.size());
+
+        // At most two chunks per worker are held in memory while the input is read
+        Semaphore inFlight = new Semaphore(parallelism * 2);
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            int chunkNo = 0;
+            long firstLine = 1;
+            List<String> lines = new ArrayList<>(chunkSize);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+                status.linesRead.incrementAndGet();
+                if (lines.size() == chunkSize) {
+                    chunks.add(submit(status, chunkNo, firstLine, lines, completedChunks, inFlight));
+                    chunkNo++;
+                    firstLine += lines.size();
+                    lines = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!lines.isEmpty()) {
+                chunks.add(submit(status, chunkNo, firstLine, lines, completedChunks, inFlight));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading import " + importId, e);
+        } finally {
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+            status.running = false;
+        }
+
+        logger.info("Order import {} finished: {} orders, {} items, {} rejected, {} chunks failed",
+            importId, status.getOrdersImported(), status.getItemsImported(), status.getRejected(),
+            status.getChunksFailed());
+        return status;
+    }
+
+    /**
+     * Progress of a running or recent import, or the committed totals of an older one
+     */
+    public ImportStatus getImportStatus(String importId) {
+        ImportStatus status = imports.get(importId);
+        if (status != null) {
+            return status;
+        }
+        Map<String, Object> totals = orderImportRepository.findTotals(importId);
+        if (((Number) totals.get("chunks")).intValue() == 0) {
+            return null;
+        }
+        ImportStatus committed = new ImportStatus(importId, ((Number) totals.get("chunk_size")).intValue());
+        committed.chunksCompleted.set(((Number) totals.get("chunks")).intValue());
+        committed.ordersImported.set(((Number) totals.get("orders")).longValue());
+        committed.itemsImported.set(((Number) totals.get("items")).longValue());
+        committed.rejected.set(((Number) totals.get("rejected")).longValue());
+        committed.running = false;
+        return committed;
+    }
+
+    private CompletableFuture<Void> submit(ImportStatus status, int chunkNo, long firstLine, List<String> lines,
+                                           Set<Integer> completedChunks, Semaphore inFlight)
+            throws InterruptedException {
+        if (completedChunks.contains(chunkNo)) {
+            status.chunksSkipped.incrementAndGet();
+            return CompletableFuture.completedFuture(null);
+        }
+        inFlight.acquire();
+        return CompletableFuture.runAsync(() -> {
+            try {
+                importChunk(status, chunkNo, firstLine, lines);
+            } finally {
+                inFlight.release();
+            }
+        }, importExecutor);
+    }
+
+    private void importChunk(ImportStatus status, int chunkNo, long firstLine, List<String> lines) {
+        List<ImportedOrderDTO> orders = new ArrayList<>(lines.size());
+        List<Rejection> rejections = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            long lineNumber = firstLine + i;
+            String line = lines.get(i);
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                ImportedOrderDTO order = orderReader.readValue(line);
+                if (order.getId() == null) {
+                    rejections.add(new Rejection(lineNumber, "missing id"));
+                    continue;
+                }
+                order.setLineNumber(lineNumber);
+                // Items may come without ids; order ids are required, so resumed imports skip them
+                for (ImportedOrderDTO.Item item : order.getItems()) {
+                    if (item.getId() == null) {
+                        item.setId(idVersion.next());
+                    }
+                }
+                orders.add(order);
+            } catch (JsonProcessingException e) {
+                rejections.add(new Rejection(lineNumber, "unreadable line: " + e.getOriginalMessage()));
+            }
+        }
+
+        try {
+            ChunkResult result = transactionTemplate.execute(tx -> {
+                ChunkResult imported = orders.isEmpty()
+                    ? null : orderImportRepository.importChunk(orders);
+                int ordersImported = imported != null ? imported.getOrdersImported() : 0;
+                int itemsImported = imported != null ? imported.getItemsImported() : 0;
+                int rejected = rejections.size() + (imported != null ? imported.getRejections().size() : 0);
+                orderImportRepository.recordChunk(status.importId, chunkNo, status.chunkSize,
+                    ordersImported, itemsImported, rejected);
+                return imported;
+            });
+            if (result != null) {
+                rejections.addAll(result.getRejections());
+                status.ordersImported.addAndGet(result.getOrdersImported());
+                status.itemsImported.addAndGet(result.getItemsImported());
+            }
+            status.reject(rejections);
+            status.chunksCompleted.incrementAndGet();
+        } catch (RuntimeException e) {
+            logger.error("Order import {} failed for chunk {} (lines {}-{})",
+                status.importId, chunkNo, firstLine, firstLine + lines.size() - 1, e);
+            status.chunksFailed.incrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        importExecutor.shutdownNow();
+    }
+
+    public static class ImportStatus {
+        private final String importId;
+        private final int chunkSize;
+        private final AtomicLong linesRead = new AtomicLong();
+        private final AtomicInteger chunksCompleted = new AtomicInteger();
+        private final AtomicInteger chunksSkipped = new AtomicInteger();
+        private final AtomicInteger chunksFailed = new AtomicInteger();
+        private final AtomicLong ordersImported = new AtomicLong();
+        private final AtomicLong itemsImported = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<Rejection> rejections = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean running = true;
+
+        ImportStatus(String importId, int chunkSize) {
+            this.importId = importId;
+            this.chunkSize = chunkSize;
+        }
+
+        private void reject(List<Rejection> chunkRejections) {
+            rejected.addAndGet(chunkRejections.size());
+            for (Rejection rejection : chunkRejections) {
+                if (rejections.size() >= MAX_REPORTED_REJECTIONS) {
+                    break;
+                }
+                rejections.add(rejection);
+            }
+        }
+
+        public String getImportId() { return importId; }
+        public int getChunkSize() { return chunkSize; }
+        public long getLinesRead() { return linesRead.get(); }
+        public int getChunksCompleted() { return chunksCompleted.get(); }
+        public int getChunksSkipped() { return chunksSkipped.get(); }
+        public int getChunksFailed() { return chunksFailed.get(); }
+        public long getOrdersImported() { return ordersImported.get(); }
+        public long getItemsImported() { return itemsImported.get(); }
+        public long getRejected() { return rejected.get(); }
+        /** The first rejected lines, up to 100 */
+        public List<Rejection> getRejections() { return rejections; }
+        public boolean isFinished() { return !running; }
+    }
+}
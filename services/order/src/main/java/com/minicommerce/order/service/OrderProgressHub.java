@@ -0,0 +1,201 @@
+package com.minicommerce.order.service;
+
+import com.minicommerce.order.dto.OrderProgressDTO;
+import com.minicommerce.order.event.OrderStatusChangedEvent;
+import com.minicommerce.order.model.Order;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Pushes order status and saga state transitions to Server-Sent Events subscribers.
+ *
+ * Streams are held as async servlet responses, so an idle subscriber costs one
+ * emitter and a list slot rather than a thread.
+ */
+@Service
+public class OrderProgressHub {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderProgressHub.class);
+
+    private static final String EVENT_NAME = "order-progress";
+
+    private final Map<UUID, List<SseEmitter>> orderSubscribers = new ConcurrentHashMap<>();
+    private final Map<UUID, List<SseEmitter>> userSubscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger openStreams = new AtomicInteger();
+
+    private final long streamTimeoutMillis;
+
+    public OrderProgressHub(MeterRegistry meterRegistry,
+                            @Value("${order.progress.stream-timeout-ms:600000}") long streamTimeoutMillis) {
+        this.streamTimeoutMillis = streamTimeoutMillis;
+        Gauge.builder("order.progress.open_streams", openStreams, AtomicInteger::get)
+            .description("Open order progress SSE connections")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Subscribe to one order. The current state is sent first; the stream
+     * completes once the order reaches a terminal status.
+     *
+     * The subscriber is registered before the order is loaded, so a transition
+     * committed meanwhile is delivered at least once, either in the loaded state or
+     * as an event; events wait until the loaded state has been sent.
+     *
+     * @param loader loads the order's current state
+     * @return the stream, or empty if the order does not exist
+     */
+    public Optional<SseEmitter> subscribeToOrder(UUID orderId, Function<UUID, Optional<Order>> loader) {
+        ProgressStream emitter = register(orderSubscribers, orderId);
+        synchronized (emitter) {
+            if (emitter.isDone()) {
+                // A terminal transition was delivered and ended the stream already
+                return Optional.of(emitter);
+            }
+            Optional<Order> snapshot = loader.apply(orderId);
+            if (snapshot.isEmpty()) {
+                unregister(orderSubscribers, orderId, emitter);
+                return Optional.empty();
+            }
+            if (send(emitter, new OrderProgressDTO(snapshot.get())) && snapshot.get().getStatus().isTerminal()) {
+                emitter.complete();
+            }
+        }
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Subscribe to every order of a user
+     */
+    public SseEmitter subscribeToUser(UUID userId) {
+        return register(userSubscribers, userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        OrderProgressDTO progress = new OrderProgressDTO(event);
+
+        List<SseEmitter> orderEmitters = orderSubscribers.get(event.getOrderId());
+        if (orderEmitters != null) {
+            for (SseEmitter emitter : orderEmitters) {
+                if (send(emitter, progress) && event.isTerminal()) {
+                    emitter.complete();
+                }
+            }
+        }
+
+        List<SseEmitter> userEmitters = userSubscribers.get(event.getUserId());
+        if (userEmitters != null) {
+            for (SseEmitter emitter : userEmitters) {
+                send(emitter, progress);
+            }
+        }
+    }
+
+    /**
+     * Keep idle connections alive through proxies and detect clients that went away
+     */
+    @Scheduled(fixedDelayString = "${order.progress.heartbeat-ms:30000}")
+    public void heartbeat() {
+        heartbeat(orderSubscribers);
+        heartbeat(userSubscribers);
+    }
+
+    private void heartbeat(Map<UUID, List<SseEmitter>> subscribers) {
+        for (List<SseEmitter> emitters : subscribers.values()) {
+            for (SseEmitter emitter : emitters) {
+                try {
+                    emitter.send(SseEmitter.event().comment("keep-alive"));
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+    }
+
+    private ProgressStream register(Map<UUID, List<SseEmitter>> subscribers, UUID key) {
+        ProgressStream emitter = new ProgressStream(streamTimeoutMillis);
+        subscribers.compute(key, (k, emitters) -> {
+            List<SseEmitter> registered = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+            registered.add(emitter);
+            return registered;
+        });
+        openStreams.incrementAndGet();
+
+        emitter.onCompletion(() -> unregister(subscribers, key, emitter));
+        emitter.onTimeout(() -> unregister(subscribers, key, emitter));
+        emitter.onError(error -> unregister(subscribers, key, emitter));
+        return emitter;
+    }
+
+    private void unregister(Map<UUID, List<SseEmitter>> subscribers, UUID key, SseEmitter emitter) {
+        boolean[] removed = new boolean[1];
+        subscribers.computeIfPresent(key, (k, emitters) -> {
+            removed[0] = emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+        if (removed[0]) {
+            openStreams.decrementAndGet();
+        }
+    }
+
+    private boolean send(SseEmitter emitter, OrderProgressDTO progress) {
+        try {
+            emitter.send(SseEmitter.event()
+                .name(EVENT_NAME)
+                .id(progress.getOrderId() + ":" + progress.getStatus())
+                .data(progress));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("Dropping progress subscriber for order: {}", progress.getOrderId(), e);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    /**
+     * Emitter that remembers being completed, so a send that fails because a
+     * concurrent terminal event completed it does not fail the finished response
+     */
+    private static final class ProgressStream extends SseEmitter {
+        private boolean done;
+
+        private ProgressStream(long timeoutMillis) {
+            super(timeoutMillis);
+        }
+
+        @Override
+        public synchronized void complete() {
+            done = true;
+            super.complete();
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable error) {
+            if (!done) {
+                done = true;
+                super.completeWithError(error);
+            }
+        }
+
+        synchronized boolean isDone() {
+            return done;
+        }
+    }
+}
@@ -1,21 +1,47 @@
 package com.minicommerce.order.service;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.minicommerce.order.dto.OrderDTO;
+import com.minicommerce.order.dto.ProductOrdersPageDTO;
+import com.minicommerce.order.dto.UserOrderSummaryDTO;
+import com.minicommerce.order.event.OrderStatusChangedEvent;
+import com.minicommerce.order.jfr.OrderCreationPhaseEvent;
 import com.minicommerce.order.model.Order;
 import com.minicommerce.order.model.OrderItem;
 import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.model.SagaState;
+import com.minicommerce.order.repository.OrderProjectionRepository;
+import com.minicommerce.order.repository.OrderProjectionRepository.Fields;
+import com.minicommerce.order.repository.OrderProjectionRepository.VersionedOrder;
 import com.minicommerce.order.repository.OrderRepository;
+import com.minicommerce.order.repository.OrderTransitionRepository;
+import com.minicommerce.order.repository.OrderTransitionRepository.Transition;
+import com.minicommerce.order.repository.OrderVersionRepository;
+import com.minicommerce.order.repository.ProductOrderRepository;
+import com.minicommerce.order.repository.ProductOrderRepository.Cursor;
+import com.minicommerce.order.repository.UserOrderSummaryRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
+import static com.minicommerce.order.logging.LogContext.ORDER_ID;
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
+
 @Service
 @Transactional
 public class OrderService {
@@ -25,16 +51,65 @@ public class OrderService {
     @Autowired
     private OrderRepository orderRepository;
     
-    // @Autowired
-    // private SagaOrchestrator sagaOrchestrator;
+    @Autowired
+    private OrderProjectionRepository orderProjectionRepository;
+    
+    @Autowired
+    private UserOrderSummaryRepository userOrderSummaryRepository;
+    
+    @Autowired
+    private OrderVersionRepository orderVersionRepository;
+    
+    @Autowired
+    private OrderTransitionRepository orderTransitionRepository;
+    
+    @Autowired
+    private ProductOrderRepository productOrderRepository;
+    
+    @Autowired
+    private SagaOrchestrator sagaOrchestrator;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+    
+    @Autowired
+    private InventoryAvailabilityCache inventoryAvailabilityCache;
+    
+    @Value("${saga.enabled:false}")
+    private boolean sagaEnabled;
     
     /**
      * Create a new order and start the saga process
      */
     public Order createOrder(CreateOrderRequest request) {
-        logger.info("Creating order for user: {}", request.getUserId());
+        Order savedOrder = persistOrder(request);
+        
+        // Return the order with items loaded
+        OrderCreationPhaseEvent reload = OrderCreationPhaseEvent.start("reload", request.getItems().size());
+        Order order = orderRepository.findWithItemsById(savedOrder.getId()).orElse(savedOrder);
+        reload.finish(savedOrder.getId());
+        return order;
+    }
+    
+    /**
+     * Store a new order and start the saga process without reloading it.
+     * Progress is reported through OrderStatusChangedEvent instead.
+     */
+    public Order acceptOrder(CreateOrderRequest request) {
+        return persistOrder(request);
+    }
+    
+    private Order persistOrder(CreateOrderRequest request) {
+        logger.info("Creating order {}", keyValue("userId", request.getUserId()));
+        int itemCount = request.getItems().size();
         
         // Create order
+        OrderCreationPhaseEvent validate = OrderCreationPhaseEvent.start("validate", itemCount);
+        catalogSnapshotService.validate(request.getItems());
+        inventoryAvailabilityCache.precheck(request.getItems());
         Order order = new Order();
         order.setUserId(request.getUserId());
         order.setTotalAmount(request.getTotalAmount() != null ? request.getTotalAmount() : BigDecimal.ZERO);
@@ -52,23 +127,47 @@ public class OrderService {
             );
             order.addItem(item);
         }
+        validate.finish(null);
         
         // Save order
+        OrderCreationPhaseEvent persist = OrderCreationPhaseEvent.start("persist", itemCount);
         Order savedOrder = orderRepository.save(order);
+        persist.finish(savedOrder.getId());
         
         // Flush to ensure all items are persisted
+        OrderCreationPhaseEvent flush = OrderCreationPhaseEvent.start("flush", itemCount);
         orderRepository.flush();
+        flush.finish(savedOrder.getId());
         
-        logger.info("Order created with ID: {}", savedOrder.getId());
+        logger.info("Order created {}", keyValue(ORDER_ID, savedOrder.getId()));
         
         // Send notification
+        OrderCreationPhaseEvent notify = OrderCreationPhaseEvent.start("notify", itemCount);
         sendOrderNotification(savedOrder);
         
-        // Start saga process
-        // sagaOrchestrator.startOrderSaga(savedOrder);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(savedOrder, null));
+        notify.finish(savedOrder.getId());
         
-        // Return the order with items loaded
-        return orderRepository.findWithItemsById(savedOrder.getId()).orElse(savedOrder);
+        
+        // Start saga process once the order is visible to other threads
+        if (sagaEnabled) {
+            afterCommit(() -> sagaOrchestrator.startOrderSaga(savedOrder));
+        }
+        
+        return savedOrder;
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
     
     /**
@@ -95,10 +194,10 @@ public class OrderService {
                 
             client.sendAsync(request, java.net.http.HttpResponse.BodyHandlers.ofString())
                 .thenAccept(response -> {
-                    logger.info("Notification sent successfully for order: {}", order.getId());
+                    logger.info("Notification sent successfully {}", keyValue(ORDER_ID, order.getId()));
                 })
                 .exceptionally(throwable -> {
-                    logger.error("Failed to send notification for order: {}", order.getId(), throwable);
+                    logger.error("Failed to send notification {}", keyValue(ORDER_ID, order.getId()), throwable);
                     return null;
                 });
                 
@@ -115,6 +214,14 @@ public class OrderService {
         return orderRepository.findWithItemsById(orderId);
     }
     
+    /**
+     * Get order by ID without loading its items
+     */
+    @Transactional(readOnly = true)
+    public Optional<Order> findOrderHeader(UUID orderId) {
+        return orderRepository.findById(orderId);
+    }
+    
     /**
      * Get orders by user ID
      */
@@ -124,32 +231,106 @@ public class OrderService {
     }
     
     /**
-     * Update order status
+     * Get a value that changes whenever the order changes, without loading it
      */
-    public Order updateOrderStatus(UUID orderId, OrderStatus status) {
-        Order order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
-        
-        order.setStatus(status);
-        return orderRepository.save(order);
+    public Optional<String> getOrderValidator(UUID orderId) {
+        return orderVersionRepository.findOrderValidator(orderId);
     }
     
     /**
-     * Cancel order
+     * Get a value that changes whenever any of the user's orders is added, changed or removed
      */
-    public Order cancelOrder(UUID orderId, String reason) {
-        Order order = orderRepository.findById(orderId)
-            .orElseThrow(() -> new RuntimeException("Order not found: " + orderId));
-        
-        if (order.getStatus() == OrderStatus.completed) {
-            throw new RuntimeException("Cannot cancel completed order");
+    public String getUserOrdersValidator(UUID userId) {
+        return orderVersionRepository.findUserOrdersValidator(userId);
+    }
+    
+    /**
+     * Get only the requested fields of an order, with items only if expanded
+     */
+    public Optional<Map<String, Object>> getOrderFields(UUID orderId, Fields fields) {
+        return Optional.ofNullable(orderProjectionRepository.findById(orderId, fields));
+    }
+    
+    /**
+     * Get only the requested fields of a user's orders, newest first
+     */
+    public List<Map<String, Object>> getOrderFieldsByUserId(UUID userId, Fields fields) {
+        return orderProjectionRepository.findByUserId(userId, fields);
+    }
+    
+    /**
+     * Get full order headers by id with their validators in one query, without items
+     */
+    @Transactional(readOnly = true)
+    public Map<UUID, VersionedOrder> getVersionedOrders(Collection<UUID> orderIds) {
+        return orderProjectionRepository.findVersionedByIds(orderIds);
+    }
+    
+    /**
+     * Load the items of all given orders in one query
+     */
+    @Transactional(readOnly = true)
+    public void loadItems(Collection<OrderDTO> orders) {
+        orderProjectionRepository.attachItems(orders);
+    }
+    
+    /**
+     * Get lifetime totals and the most recent order headers of a user in one query
+     */
+    public UserOrderSummaryDTO getUserOrderSummary(UUID userId, int recentLimit) {
+        return userOrderSummaryRepository.findSummary(userId, recentLimit);
+    }
+    
+    /**
+     * Get one page of the order lines containing a product, newest first
+     *
+     * @param cursor {@code nextCursor} of the previous page, or null for the first page
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public ProductOrdersPageDTO getOrdersByProduct(UUID productId, String cursor, Set<OrderStatus> statuses,
+                                                   LocalDateTime from, LocalDateTime to, int limit) {
+        Cursor after = cursor != null ? Cursor.decode(cursor) : null;
+        return productOrderRepository.findPage(productId, after, statuses, from, to, limit);
+    }
+    
+    /**
+     * Update order status in one conditional update. Cancelling or failing an order
+     * stops its saga, as {@link #cancelOrder} does.
+     *
+     * @throws TransitionConflictException if the order's current status cannot move to {@code status}
+     */
+    public OrderDTO updateOrderStatus(UUID orderId, OrderStatus status) {
+        return transition(orderId, status);
+    }
+    
+    /**
+     * Cancel order. Its saga stops once the cancel commits: the steps still in flight
+     * are undone, and a reservation the saga may hold is released.
+     *
+     * @throws TransitionConflictException if the order already finished
+     */
+    public OrderDTO cancelOrder(UUID orderId, String reason) {
+        OrderDTO order = transition(orderId, OrderStatus.cancelled);
+        logger.info("Order cancelled {}, reason: {}", keyValue(ORDER_ID, orderId), reason);
+        return order;
+    }
+    
+    private OrderDTO transition(UUID orderId, OrderStatus status) {
+        SagaState sagaState = SagaOrchestrator.stoppedSagaState(status);
+        Transition transition = orderTransitionRepository.transition(orderId, status, sagaState);
+        if (transition == null) {
+            throw new RuntimeException("Order not found: " + orderId);
         }
-        
-        order.setStatus(OrderStatus.cancelled);
-        Order savedOrder = orderRepository.save(order);
-        
-        logger.info("Order cancelled: {}, reason: {}", orderId, reason);
-        return savedOrder;
+        if (!transition.isApplied()) {
+            throw new TransitionConflictException(orderId, transition.getPreviousStatus(), status);
+        }
+        OrderDTO order = transition.getOrder().getOrder();
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order, transition.getPreviousStatus()));
+        if (sagaState != null) {
+            afterCommit(() -> sagaOrchestrator.sagasStopped(List.of(transition)));
+        }
+        orderProjectionRepository.attachItems(List.of(order));
+        return order;
     }
     
     /**
@@ -209,6 +390,50 @@ public class OrderService {
         public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
     }
     
+    public static class BatchGetRequest {
+        private List<UUID> ids;
+        
+        // Getters and setters
+        public List<UUID> getIds() { return ids; }
+        public void setIds(List<UUID> ids) { this.ids = ids; }
+    }
+    
+    /**
+     * A status change that is not a legal move from the order's current status
+     */
+    public static class TransitionConflictException extends IllegalStateException {
+        private final UUID orderId;
+        private final OrderStatus status;
+        private final OrderStatus requestedStatus;
+        
+        public TransitionConflictException(UUID orderId, OrderStatus status, OrderStatus requestedStatus) {
+            super("Order " + orderId + " cannot move from " + status + " to " + requestedStatus);
+            this.orderId = orderId;
+            this.status = status;
+            this.requestedStatus = requestedStatus;
+        }
+        
+        public UUID getOrderId() { return orderId; }
+        public OrderStatus getStatus() { return status; }
+        public OrderStatus getRequestedStatus() { return requestedStatus; }
+    }
+    
+    public static class TransitionConflict {
+        private final UUID orderId;
+        private final OrderStatus status;
+        private final OrderStatus requestedStatus;
+        
+        public TransitionConflict(TransitionConflictException conflict) {
+            this.orderId = conflict.getOrderId();
+            this.status = conflict.getStatus();
+            this.requestedStatus = conflict.getRequestedStatus();
+        }
+        
+        public UUID getOrderId() { return orderId; }
+        public OrderStatus getStatus() { return status; }
+        public OrderStatus getRequestedStatus() { return requestedStatus; }
+    }
+    
     public static class OrderStatistics {
         private long totalOrders;
         private long pendingOrders;
@@ -0,0 +1,164 @@
+package com.minicommerce.order.service;
+
+import com.minicommerce.order.event.OrderStatusChangedEvent;
+import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.repository.RevenueRollupRepository;
+import com.minicommerce.order.repository.RevenueRollupRepository.Granularity;
+import com.minicommerce.order.repository.RevenueRollupRepository.RevenueBucket;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps per-minute, per-hour and per-day revenue rollups up to date and answers
+ * revenue range queries from them instead of scanning orders.
+ */
+@Service
+public class RevenueRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RevenueRollupService.class);
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    private final TransactionTemplate transactionTemplate;
+    private final int shards;
+    private final ExecutorService backfillExecutor;
+    private final AtomicReference<BackfillStatus> backfill = new AtomicReference<>();
+
+    public RevenueRollupService(PlatformTransactionManager transactionManager,
+                                @Value("${order.revenue.rollup-shards:8}") int shards,
+                                @Value("${order.revenue.backfill-parallelism:4}") int backfillParallelism) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shards = Math.max(shards, 1);
+        this.backfillExecutor = Executors.newFixedThreadPool(backfillParallelism, runnable -> {
+            Thread thread = new Thread(runnable, "revenue-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Count an order into the rollups when it reaches a terminal status, in the
+     * same transaction as the status change so rollups never drift from orders.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!event.isTerminal() || event.getStatus() == event.getPreviousStatus()) {
+            return;
+        }
+        LocalDateTime createdAt = event.getCreatedAt() != null ? event.getCreatedAt() : LocalDateTime.now();
+        revenueRollupRepository.applyTransition(
+            createdAt,
+            event.getStatus(),
+            event.getPreviousStatus(),
+            toCents(event.getTotalAmount()),
+            ThreadLocalRandom.current().nextInt(shards));
+    }
+
+    public List<RevenueBucket> getRevenue(Granularity granularity, LocalDateTime from, LocalDateTime to,
+                                          OrderStatus status) {
+        return revenueRollupRepository.findBuckets(granularity, from, to, status);
+    }
+
+    public BigDecimal getTotalRevenue(OrderStatus status) {
+        return BigDecimal.valueOf(revenueRollupRepository.totalAmountCents(status), 2);
+    }
+
+    /**
+     * Rebuild the rollups for every day in [from, to] from the orders table, one
+     * day per task. Defaults to the full range of terminal orders.
+     */
+    public synchronized BackfillStatus startBackfill(LocalDate from, LocalDate to) {
+        BackfillStatus running = backfill.get();
+        if (running != null && !running.isFinished()) {
+            return running;
+        }
+
+        if (from == null || to == null) {
+            LocalDateTime[] range = revenueRollupRepository.findTerminalOrderRange();
+            if (range == null) {
+                BackfillStatus empty = new BackfillStatus(null, null, 0);
+                backfill.set(empty);
+                return empty;
+            }
+            from = from != null ? from : range[0].toLocalDate();
+            to = to != null ? to : range[1].toLocalDate();
+        }
+
+        List<LocalDate> days = from.datesUntil(to.plusDays(1)).toList();
+        BackfillStatus status = new BackfillStatus(from, to, days.size());
+        backfill.set(status);
+        logger.info("Starting revenue rollup backfill for {} days from {} to {}", days.size(), from, to);
+
+        for (LocalDate day : days) {
+            backfillExecutor.execute(() -> {
+                try {
+                    transactionTemplate.executeWithoutResult(tx -> revenueRollupRepository.rebuildDay(day));
+                    status.completedDays.incrementAndGet();
+                } catch (RuntimeException e) {
+                    logger.error("Revenue rollup backfill failed for day: {}", day, e);
+                    status.failedDays.incrementAndGet();
+                }
+                if (status.isFinished()) {
+                    logger.info("Revenue rollup backfill finished: {} days, {} failed",
+                        status.getTotalDays(), status.getFailedDays());
+                }
+            });
+        }
+        return status;
+    }
+
+    public BackfillStatus getBackfillStatus() {
+        return backfill.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillExecutor.shutdownNow();
+    }
+
+    private static long toCents(BigDecimal amount) {
+        // Same rounding as the DECIMAL(10,2) column the amount is stored in
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    public static class BackfillStatus {
+        private final LocalDate from;
+        private final LocalDate to;
+        private final int totalDays;
+        private final AtomicInteger completedDays = new AtomicInteger();
+        private final AtomicInteger failedDays = new AtomicInteger();
+
+        BackfillStatus(LocalDate from, LocalDate to, int totalDays) {
+            this.from = from;
+            this.to = to;
+            this.totalDays = totalDays;
+        }
+
+        public LocalDate getFrom() { return from; }
+        public LocalDate getTo() { return to; }
+        public int getTotalDays() { return totalDays; }
+        public int getCompletedDays() { return completedDays.get(); }
+        public int getFailedDays() { return failedDays.get(); }
+        public boolean isFinished() { return completedDays.get() + failedDays.get() >= totalDays; }
+    }
+}
@@ -1,53 +1,260 @@
 package com.minicommerce.order.service;
 
+import com.minicommerce.order.dto.OrderDTO;
 import com.minicommerce.order.event.*;
+import com.minicommerce.order.eventbus.RingBufferEventBus;
+import com.minicommerce.order.eventbus.WaitStrategy;
+import com.minicommerce.order.jdbc.QueryScope;
+import com.minicommerce.order.jdbc.QueryStats;
+import com.minicommerce.order.jfr.SagaStepEvent;
+import com.minicommerce.order.logging.LogContext;
 import com.minicommerce.order.model.Order;
 import com.minicommerce.order.model.OrderStatus;
 import com.minicommerce.order.model.SagaState;
 import com.minicommerce.order.repository.OrderRepository;
+import com.minicommerce.order.repository.OrderTransitionRepository;
+import com.minicommerce.order.repository.OrderTransitionRepository.Transition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+import static com.minicommerce.order.logging.LogContext.ORDER_ID;
+import static net.logstash.logback.argument.StructuredArguments.keyValue;
 
 @Service
 public class SagaOrchestrator {
     
     private static final Logger logger = LoggerFactory.getLogger(SagaOrchestrator.class);
     
+    /** Statuses an order leaves processing for without its saga, which undoes the saga's steps */
+    private static final Set<OrderStatus> STOPPED_STATUSES = EnumSet.of(OrderStatus.cancelled, OrderStatus.failed);
+    /** Saga states of an order whose saga may hold an inventory reservation */
+    private static final Set<SagaState> RESERVING_SAGA_STATES = EnumSet.of(SagaState.orchestrating, SagaState.compensating);
+    
+    @Autowired
+    private QueryStats queryStats;
+    
     @Autowired
     private OrderRepository orderRepository;
     
+    @Autowired
+    private OrderTransitionRepository orderTransitionRepository;
+    
+    @Autowired
+    private InventoryBatchClient inventoryBatchClient;
+    
+    @Autowired
+    private InventoryAvailabilityCache inventoryAvailabilityCache;
+    
+    @Autowired
+    private AdmissionGate admissionGate;
+    
+    @Autowired
+    private SagaPartitionManager sagaPartitions;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
     @Autowired
     private WebClient.Builder webClientBuilder;
     
+    @Value("${saga.compensation.batch-size:50}")
+    private int compensationBatchSize;
+    
     private final WebClient inventoryClient;
     private final WebClient paymentClient;
     private final WebClient notificationClient;
+    private final RingBufferEventBus<OrderEvent> eventBus;
+    /** Null when step results are handled on virtual threads */
+    private final ThreadPoolExecutor persistenceExecutor;
+    private final Scheduler persistenceScheduler;
+    /** Step results the persistence queue has room for; null when step results are handled on virtual threads */
+    private final Semaphore persistencePermits;
+    private final Counter persistenceRejected;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration stepTimeout;
+    private final Duration sagaTimeout;
     
-    public SagaOrchestrator(WebClient.Builder webClientBuilder) {
+    public SagaOrchestrator(WebClient.Builder webClientBuilder,
+                            MeterRegistry meterRegistry,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${services.inventory.url}") String inventoryUrl,
+                            @Value("${services.payment.url}") String paymentUrl,
+                            @Value("${services.notification.url}") String notificationUrl,
+                            @Value("${saga.events.enabled:true}") boolean eventBusEnabled,
+                            @Value("${saga.events.lanes:0}") int eventLanes,
+                            @Value("${saga.events.buffer-size:1024}") int eventBufferSize,
+                            @Value("${saga.events.overflow-limit:1024}") int eventOverflowLimit,
+                            @Value("${saga.events.wait-strategy:sleeping}") WaitStrategy eventWaitStrategy,
+                            @Value("${saga.persistence.threads:8}") int persistenceThreads,
+                            @Value("${saga.persistence.queue-capacity:10000}") int persistenceQueueCapacity,
+                            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                            @Value("${saga.step-timeout-ms:30000}") long stepTimeoutMillis,
+                            @Value("${saga.timeout:300000}") long sagaTimeoutMillis) {
         this.webClientBuilder = webClientBuilder;
-        this.inventoryClient = webClientBuilder.baseUrl("http://inventory-service:8080").build();
-        this.paymentClient = webClientBuilder.baseUrl("http://payment-service:8080").build();
-        this.notificationClient = webClientBuilder.baseUrl("http://notification-service:8080").build();
+        // Sagas start from an afterCommit callback, where joining the finished transaction would lose the update
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Every call ends well before the saga timeout, after which the saga counts as abandoned
+        if (stepTimeoutMillis <= 0 || stepTimeoutMillis >= sagaTimeoutMillis) {
+            throw new IllegalArgumentException("saga.step-timeout-ms must be positive and below saga.timeout");
+        }
+        this.stepTimeout = Duration.ofMillis(stepTimeoutMillis);
+        this.sagaTimeout = Duration.ofMillis(sagaTimeoutMillis);
+        this.inventoryClient = webClientBuilder.baseUrl(inventoryUrl).build();
+        this.paymentClient = webClientBuilder.baseUrl(paymentUrl).build();
+        this.notificationClient = webClientBuilder.baseUrl(notificationUrl).build();
+        // Saga steps are handled on lane workers instead of the HTTP client thread that completed the call
+        this.eventBus = eventBusEnabled
+            ? new RingBufferEventBus<>("saga",
+                eventLanes > 0 ? eventLanes : Runtime.getRuntime().availableProcessors(),
+                eventBufferSize, eventOverflowLimit, eventWaitStrategy, this::handleEvent, meterRegistry)
+            : null;
+        
+        // Step results are handled here rather than on the HTTP client's event loop, which
+        // must not block on JDBC. A step takes a permit for its result before its call is
+        // made, so the queue never fills and nothing is rejected on the event loop; without
+        // a permit the step fails on the thread starting it, see #handOff. With virtual
+        // threads each step result gets its own, and the JDBC limiter bounds their connections
+        this.persistenceRejected = Counter.builder("order.saga.persistence.rejected")
+            .description("Saga steps failed before their call because the persistence queue was full")
+            .register(meterRegistry);
+        if (virtualThreads) {
+            this.persistenceExecutor = null;
+            this.persistencePermits = null;
+            this.persistenceScheduler = Schedulers.fromExecutor(new VirtualThreadTaskExecutor("saga-persistence-"));
+            return;
+        }
+        this.persistencePermits = new Semaphore(persistenceThreads + persistenceQueueCapacity);
+        this.persistenceExecutor = new ThreadPoolExecutor(persistenceThreads, persistenceThreads,
+            0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(persistenceQueueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "saga-persistence");
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.persistenceScheduler = Schedulers.fromExecutorService(persistenceExecutor, "saga-persistence");
+        Gauge.builder("order.saga.persistence.queued", persistenceExecutor, executor -> executor.getQueue().size())
+            .description("Saga step results waiting for a persistence thread")
+            .register(meterRegistry);
+        Gauge.builder("order.saga.persistence.active", persistenceExecutor, ThreadPoolExecutor::getActiveCount)
+            .description("Persistence threads handling saga step results")
+            .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (persistenceExecutor != null) {
+            persistenceExecutor.shutdown();
+            persistenceExecutor.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (eventBus != null) {
+            eventBus.close();
+        }
     }
     
     /**
-     * Start the order saga process
+     * Start the order saga process, unless another replica owns the order's saga
+     * partition and will pick it up. The order moves to processing first, so a saga
+     * is started at most once and partition pickup only sees sagas that never began.
      */
     public void startOrderSaga(Order order) {
-        logger.info("Starting order saga for order: {}", order.getId());
-        
-        try {
-            // Step 1: Reserve inventory
-            reserveInventory(order);
-        } catch (Exception e) {
-            logger.error("Failed to start order saga for order: {}", order.getId(), e);
-            handleSagaFailure(order, "Failed to start saga: " + e.getMessage());
+        if (!sagaPartitions.begin(order.getId())) {
+            logger.debug("Leaving saga of order {} to its partition owner", order.getId());
+            return;
+        }
+        try (LogContext context = LogContext.open(order.getId(), "StartSaga")) {
+            Transition started;
+            try {
+                started = transition(order.getId(), OrderStatus.processing, SagaState.orchestrating);
+            } catch (RuntimeException e) {
+                sagaPartitions.finished(order.getId());
+                throw e;
+            }
+            if (started == null || !started.isApplied()) {
+                sagaPartitions.finished(order.getId());
+                logger.info("Not starting order saga, the order is {}",
+                    started != null ? started.getPreviousStatus() : "missing");
+                return;
+            }
+            logger.info("Starting order saga");
+            admissionGate.sagaStarted(order.getId());
+            
+            try {
+                // Step 1: Reserve inventory
+                reserveInventory(order);
+            } catch (Exception e) {
+                logger.error("Failed to start order saga", e);
+                handleSagaFailure(order, "Failed to start saga: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Start the sagas of owned partitions that no replica is driving
+     */
+    @Scheduled(fixedDelayString = "${saga.partitions.pickup-ms:1000}")
+    public void pickUpPendingSagas() {
+        for (UUID orderId : sagaPartitions.pendingSagas()) {
+            orderRepository.findWithItemsById(orderId).ifPresent(order -> {
+                logger.info("Picking up saga {}", keyValue(ORDER_ID, orderId));
+                startOrderSaga(order);
+            });
+        }
+    }
+    
+    /**
+     * Fail and compensate the sagas of owned partitions that have been processing for
+     * longer than the saga timeout. The failed transition is conditional and fenced,
+     * so of a slow original owner and this replica only one fails the order, and the
+     * original owner's next step finds it failed and stops.
+     */
+    @Scheduled(fixedDelayString = "${saga.partitions.recovery-ms:30000}")
+    public void recoverStalledSagas() {
+        for (UUID orderId : sagaPartitions.stalledSagas()) {
+            orderRepository.findById(orderId).ifPresent(order -> {
+                try (LogContext context = LogContext.open(orderId, "RecoverSaga")) {
+                    logger.warn("Saga stalled in processing since {}, failing and compensating it", order.getUpdatedAt());
+                    if (handleSagaFailure(order, "Saga did not finish within " + sagaTimeout.toMillis() + " ms")) {
+                        // Whether the saga got as far as paying is not known here
+                        compensate(orderId, true, "Order failed");
+                    }
+                }
+            });
         }
     }
     
@@ -55,16 +262,19 @@ public class SagaOrchestrator {
      * Handle inventory reserved event
      */
     public void handleInventoryReserved(InventoryReservedEvent event) {
-        logger.info("Processing inventory reserved event for order: {}", event.getOrderId());
+        logger.info("Processing inventory reserved event");
         
         Order order = orderRepository.findById(event.getOrderId())
             .orElseThrow(() -> new RuntimeException("Order not found: " + event.getOrderId()));
+        if (stoppedMeanwhile(order, null)) {
+            return;
+        }
         
         try {
             // Step 2: Process payment
             processPayment(order);
         } catch (Exception e) {
-            logger.error("Failed to process payment for order: {}", order.getId(), e);
+            logger.error("Failed to process payment", e);
             handleSagaFailure(order, "Payment processing failed: " + e.getMessage());
         }
     }
@@ -73,7 +283,7 @@ public class SagaOrchestrator {
      * Handle inventory reservation failed event
      */
     public void handleInventoryReservationFailed(InventoryReservationFailedEvent event) {
-        logger.info("Processing inventory reservation failed event for order: {}", event.getOrderId());
+        logger.info("Processing inventory reservation failed event");
         
         Order order = orderRepository.findById(event.getOrderId())
             .orElseThrow(() -> new RuntimeException("Order not found: " + event.getOrderId()));
@@ -85,16 +295,19 @@ public class SagaOrchestrator {
      * Handle payment processed event
      */
     public void handlePaymentProcessed(PaymentProcessedEvent event) {
-        logger.info("Processing payment processed event for order: {}", event.getOrderId());
+        logger.info("Processing payment processed event");
         
         Order order = orderRepository.findById(event.getOrderId())
             .orElseThrow(() -> new RuntimeException("Order not found: " + event.getOrderId()));
+        if (stoppedMeanwhile(order, event.getPaymentId())) {
+            return;
+        }
         
         try {
             // Step 3: Confirm inventory reservation
-            confirmInventoryReservation(order);
+            confirmInventoryReservation(order, event.getPaymentId());
         } catch (Exception e) {
-            logger.error("Failed to confirm inventory reservation for order: {}", order.getId(), e);
+            logger.error("Failed to confirm inventory reservation", e);
             handleSagaFailure(order, "Inventory confirmation failed: " + e.getMessage());
         }
     }
@@ -103,40 +316,52 @@ public class SagaOrchestrator {
      * Handle payment failed event
      */
     public void handlePaymentFailed(PaymentFailedEvent event) {
-        logger.info("Processing payment failed event for order: {}", event.getOrderId());
+        logger.info("Processing payment failed event");
         
         Order order = orderRepository.findById(event.getOrderId())
             .orElseThrow(() -> new RuntimeException("Order not found: " + event.getOrderId()));
         
         // Compensate: Release inventory reservation
         compensateInventoryReservation(order);
+        handleSagaFailure(order, "Payment failed: " + event.getReason());
     }
     
     /**
      * Handle order completed event
      */
     public void handleOrderCompleted(OrderCompletedEvent event) {
-        logger.info("Processing order completed event for order: {}", event.getOrderId());
+        logger.info("Processing order completed event");
         
-        Order order = orderRepository.findById(event.getOrderId())
-            .orElseThrow(() -> new RuntimeException("Order not found: " + event.getOrderId()));
+        // Update saga state, unless the order was cancelled or failed meanwhile
+        Transition transition;
+        try {
+            transition = transition(event.getOrderId(), OrderStatus.completed, SagaState.completed);
+        } finally {
+            sagaEnded(event.getOrderId());
+        }
+        if (transition == null) {
+            throw new RuntimeException("Order not found: " + event.getOrderId());
+        }
+        if (!transition.isApplied()) {
+            logger.warn("Order saga completed but the order is already {}", transition.getPreviousStatus());
+            if (STOPPED_STATUSES.contains(transition.getPreviousStatus())) {
+                compensate(event.getOrderId(), event.getPaymentId() != null, "Order " + transition.getPreviousStatus());
+            }
+            return;
+        }
         
         // Send notification
-        sendOrderNotification(order, "Order completed successfully");
-        
-        // Update saga state
-        order.setSagaState(SagaState.completed);
-        order.setStatus(OrderStatus.completed);
-        orderRepository.save(order);
+        OrderDTO order = transition.getOrder().getOrder();
+        sendOrderNotification(order.getId(), order.getUserId(), -1, "Order completed successfully");
         
-        logger.info("Order saga completed successfully for order: {}", order.getId());
+        logger.info("Order saga completed successfully");
     }
     
     /**
      * Reserve inventory for the order
      */
     private void reserveInventory(Order order) {
-        logger.info("Reserving inventory for order: {}", order.getId());
+        logger.info("Reserving inventory");
         
         // Prepare reservation request
         InventoryReservationRequest request = new InventoryReservationRequest();
@@ -148,14 +373,21 @@ public class SagaOrchestrator {
             ))
             .toList());
         
-        // Call inventory service
-        inventoryClient.post()
-            .uri("/api/inventory/reserve")
-            .body(Mono.just(request), InventoryReservationRequest.class)
-            .retrieve()
-            .bodyToMono(InventoryReservationResponse.class)
+        // Call inventory service, coalescing with concurrent sagas when batching is enabled
+        Mono<InventoryReservationResponse> reservation = inventoryBatchClient.isEnabled()
+            ? inventoryBatchClient.reserve(request)
+            : inventoryClient.post()
+                .uri("/api/inventory/reserve")
+                .body(Mono.just(request), InventoryReservationRequest.class)
+                .retrieve()
+                .bodyToMono(InventoryReservationResponse.class);
+        
+        reservation
+            .transform(recordStep("reserve_inventory", order))
+            .transform(handOff())
             .doOnSuccess(response -> {
-                logger.info("Inventory reserved successfully for order: {}", order.getId());
+                logger.info("Inventory reserved successfully {}", keyValue(ORDER_ID, order.getId()));
+                admissionGate.downstreamSucceeded();
                 // Publish inventory reserved event
                 publishEvent(new InventoryReservedEvent(
                     order.getId(),
@@ -165,7 +397,9 @@ public class SagaOrchestrator {
                 ));
             })
             .doOnError(error -> {
-                logger.error("Inventory reservation failed for order: {}", order.getId(), error);
+                logger.error("Inventory reservation failed {}", keyValue(ORDER_ID, order.getId()), error);
+                recordDownstreamError(error);
+                inventoryAvailabilityCache.reservationFailed(error);
                 // Publish inventory reservation failed event
                 publishEvent(new InventoryReservationFailedEvent(
                     order.getId(),
@@ -180,7 +414,7 @@ public class SagaOrchestrator {
      * Process payment for the order
      */
     private void processPayment(Order order) {
-        logger.info("Processing payment for order: {}", order.getId());
+        logger.info("Processing payment");
         
         // Prepare payment request
         PaymentRequest request = new PaymentRequest();
@@ -194,8 +428,11 @@ public class SagaOrchestrator {
             .body(Mono.just(request), PaymentRequest.class)
             .retrieve()
             .bodyToMono(PaymentResponse.class)
+            .transform(recordStep("process_payment", order))
+            .transform(handOff())
             .doOnSuccess(response -> {
-                logger.info("Payment processed successfully for order: {}", order.getId());
+                logger.info("Payment processed successfully {}", keyValue(ORDER_ID, order.getId()));
+                admissionGate.downstreamSucceeded();
                 // Publish payment processed event
                 publishEvent(new PaymentProcessedEvent(
                     order.getId(),
@@ -206,7 +443,8 @@ public class SagaOrchestrator {
                 ));
             })
             .doOnError(error -> {
-                logger.error("Payment processing failed for order: {}", order.getId(), error);
+                logger.error("Payment processing failed {}", keyValue(ORDER_ID, order.getId()), error);
+                recordDownstreamError(error);
                 // Publish payment failed event
                 publishEvent(new PaymentFailedEvent(
                     order.getId(),
@@ -220,8 +458,8 @@ public class SagaOrchestrator {
     /**
      * Confirm inventory reservation
      */
-    private void confirmInventoryReservation(Order order) {
-        logger.info("Confirming inventory reservation for order: {}", order.getId());
+    private void confirmInventoryReservation(Order order, UUID paymentId) {
+        logger.info("Confirming inventory reservation");
         
         // Call inventory service to confirm reservation
         inventoryClient.post()
@@ -229,17 +467,22 @@ public class SagaOrchestrator {
             .body(Mono.just(new InventoryConfirmationRequest(order.getId())), InventoryConfirmationRequest.class)
             .retrieve()
             .bodyToMono(Void.class)
+            .transform(recordStep("confirm_inventory", order))
+            .transform(handOff())
             .doOnSuccess(response -> {
-                logger.info("Inventory reservation confirmed for order: {}", order.getId());
+                logger.info("Inventory reservation confirmed {}", keyValue(ORDER_ID, order.getId()));
+                admissionGate.downstreamSucceeded();
                 // Publish order completed event
                 publishEvent(new OrderCompletedEvent(
                     order.getId(),
                     order.getUserId(),
-                    OrderStatus.completed
+                    OrderStatus.completed,
+                    paymentId
                 ));
             })
             .doOnError(error -> {
-                logger.error("Inventory confirmation failed for order: {}", order.getId(), error);
+                logger.error("Inventory confirmation failed {}", keyValue(ORDER_ID, order.getId()), error);
+                recordDownstreamError(error);
                 handleSagaFailure(order, "Inventory confirmation failed: " + error.getMessage());
             })
             .subscribe();
@@ -249,7 +492,7 @@ public class SagaOrchestrator {
      * Compensate inventory reservation (release reserved inventory)
      */
     private void compensateInventoryReservation(Order order) {
-        logger.info("Compensating inventory reservation for order: {}", order.getId());
+        logger.info("Compensating inventory reservation");
         
         // Call inventory service to release reservation
         inventoryClient.post()
@@ -257,8 +500,10 @@ public class SagaOrchestrator {
             .body(Mono.just(new InventoryReleaseRequest(order.getId())), InventoryReleaseRequest.class)
             .retrieve()
             .bodyToMono(Void.class)
+            .transform(recordStep("release_inventory", order))
+            .transform(handOff())
             .doOnSuccess(response -> {
-                logger.info("Inventory reservation released for order: {}", order.getId());
+                logger.info("Inventory reservation released {}", keyValue(ORDER_ID, order.getId()));
                 // Publish inventory released event
                 publishEvent(new InventoryReleasedEvent(
                     order.getId(),
@@ -267,20 +512,165 @@ public class SagaOrchestrator {
                 ));
             })
             .doOnError(error -> {
-                logger.error("Failed to release inventory reservation for order: {}", order.getId(), error);
+                logger.error("Failed to release inventory reservation {}", keyValue(ORDER_ID, order.getId()), error);
             })
             .subscribe();
     }
     
+    /**
+     * Saga state for an order cancelled or failed outside its saga: compensating while
+     * a cancelled order's reservation is released, failed for a failed order
+     *
+     * @return the saga state, or null if {@code status} does not stop a saga
+     */
+    public static SagaState stoppedSagaState(OrderStatus status) {
+        switch (status) {
+            case cancelled:
+                return SagaState.compensating;
+            case failed:
+                return SagaState.failed;
+            default:
+                return null;
+        }
+    }
+    
+    /**
+     * End the sagas of orders cancelled or failed outside their saga, once their
+     * transitions committed, and release the reservations of those whose saga was
+     * running. A step still in flight finds its order stopped and undoes itself.
+     *
+     * @return the number of orders whose reservations are released
+     */
+    public int sagasStopped(List<Transition> transitions) {
+        List<UUID> release = new ArrayList<>();
+        for (Transition transition : transitions) {
+            UUID orderId = transition.getOrder().getOrder().getId();
+            sagaEnded(orderId);
+            if (RESERVING_SAGA_STATES.contains(transition.getPreviousSagaState())) {
+                release.add(orderId);
+            }
+        }
+        releaseInventoryReservations(release);
+        return release.size();
+    }
+    
+    /**
+     * Release the inventory reservations of orders stopped outside their saga, such as
+     * by a bulk cancel. Runs in the background one batch at a time, with the calls of
+     * a batch in parallel; a failed release is logged and does not stop the rest.
+     */
+    public void releaseInventoryReservations(List<UUID> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Flux.fromIterable(orderIds)
+            .buffer(compensationBatchSize)
+            .concatMap(batch -> Flux.fromIterable(batch)
+                .flatMap(this::releaseInventoryReservation)
+                .filter(Boolean::booleanValue)
+                .count()
+                .doOnNext(released -> logger.info("Released inventory reservations of {} of {} orders",
+                    released, batch.size())))
+            .subscribe();
+    }
+    
+    /**
+     * Stop the saga of an order that was cancelled or otherwise left processing while
+     * a step was in flight, undoing what the saga did so far
+     *
+     * @param paymentId the order's payment, or null if none was taken yet
+     * @return whether the saga was stopped
+     */
+    private boolean stoppedMeanwhile(Order order, UUID paymentId) {
+        if (order.getStatus() == OrderStatus.processing) {
+            return false;
+        }
+        logger.info("Stopping order saga, the order is {}", order.getStatus());
+        try {
+            if (STOPPED_STATUSES.contains(order.getStatus())) {
+                compensate(order.getId(), paymentId != null, "Order " + order.getStatus());
+            }
+        } finally {
+            sagaEnded(order.getId());
+        }
+        return true;
+    }
+    
+    /**
+     * Refund the order's payments if it may have paid, and release its inventory
+     * reservation in the background. The release covers reservations the inventory
+     * already confirmed.
+     */
+    private void compensate(UUID orderId, boolean paid, String reason) {
+        if (paid) {
+            refundPayments(orderId, reason);
+        }
+        releaseInventoryReservation(orderId).subscribe();
+    }
+    
+    /**
+     * Refund the successful payments of an order, looked up from the payment service,
+     * unless it already has a successful refund. Both the replica driving a saga and
+     * one recovering it may compensate the order, and unlike a release a refund is
+     * not idempotent.
+     */
+    private void refundPayments(UUID orderId, String reason) {
+        logger.info("Refunding payments");
+        
+        paymentClient.get()
+            .uri("/api/payment/order/{orderId}", orderId)
+            .retrieve()
+            .bodyToMono(OrderPaymentsResponse.class)
+            .transform(recordStep("find_payments", orderId, -1))
+            .flatMapMany(response -> {
+                List<PaymentSummary> payments = response.getPayments() != null ? response.getPayments() : List.of();
+                boolean refunded = payments.stream().anyMatch(payment -> payment.isSuccessful() && payment.isRefund());
+                return Flux.fromIterable(refunded ? List.<PaymentSummary>of() : payments)
+                    .filter(payment -> payment.isSuccessful() && !payment.isRefund());
+            })
+            .flatMap(payment -> paymentClient.post()
+                .uri("/api/payment/refund")
+                .bodyValue(new PaymentRefundRequest(payment.getPaymentId(), reason))
+                .retrieve()
+                .toBodilessEntity()
+                .transform(recordStep("refund_payment", orderId, -1)))
+            .doOnNext(response -> {
+                logger.info("Payment refunded {}", keyValue(ORDER_ID, orderId));
+            })
+            .doOnError(error -> {
+                logger.error("Failed to refund payments {}", keyValue(ORDER_ID, orderId), error);
+            })
+            .subscribe();
+    }
+    
+    private Mono<Boolean> releaseInventoryReservation(UUID orderId) {
+        return inventoryClient.post()
+            .uri("/api/inventory/release")
+            .bodyValue(new InventoryReleaseRequest(orderId))
+            .retrieve()
+            .toBodilessEntity()
+            .transform(recordStep("release_inventory", orderId, -1))
+            .map(response -> true)
+            .onErrorResume(error -> {
+                logger.error("Failed to release inventory reservation {}", keyValue(ORDER_ID, orderId), error);
+                return Mono.just(false);
+            });
+    }
+    
     /**
      * Send notification
      */
     private void sendOrderNotification(Order order, String message) {
-        logger.info("Sending notification for order: {}", order.getId());
+        int itemCount = Hibernate.isInitialized(order.getItems()) ? order.getItems().size() : -1;
+        sendOrderNotification(order.getId(), order.getUserId(), itemCount, message);
+    }
+    
+    private void sendOrderNotification(UUID orderId, UUID userId, int itemCount, String message) {
+        logger.info("Sending notification");
         
         NotificationRequest request = new NotificationRequest();
-        request.setUserId(order.getUserId());
-        request.setOrderId(order.getId());
+        request.setUserId(userId);
+        request.setOrderId(orderId);
         request.setType("order_update");
         request.setMessage(message);
         
@@ -289,70 +679,191 @@ public class SagaOrchestrator {
             .body(Mono.just(request), NotificationRequest.class)
             .retrieve()
             .bodyToMono(Void.class)
+            .transform(recordStep("send_notification", orderId, itemCount))
             .doOnSuccess(response -> {
-                logger.info("Notification sent successfully for order: {}", order.getId());
+                logger.info("Notification sent successfully {}", keyValue(ORDER_ID, orderId));
             })
             .doOnError(error -> {
-                logger.error("Failed to send notification for order: {}", order.getId(), error);
+                logger.error("Failed to send notification {}", keyValue(ORDER_ID, orderId), error);
             })
             .subscribe();
     }
     
+    /**
+     * Bound a step's downstream call by saga.step-timeout-ms and record it as a
+     * SagaStepEvent, finished before the step's own success and error handlers run
+     */
+    private <T> Function<Mono<T>, Mono<T>> recordStep(String step, Order order) {
+        int itemCount = Hibernate.isInitialized(order.getItems()) ? order.getItems().size() : -1;
+        return recordStep(step, order.getId(), itemCount);
+    }
+    
+    /**
+     * Handle a step's result on the persistence threads. The step takes a permit for its
+     * result when subscribed, on the thread starting it; if the persistence queue is full
+     * its call is not made and it fails there with a RejectedExecutionException.
+     */
+    private <T> Function<Mono<T>, Mono<T>> handOff() {
+        return call -> Mono.defer(() -> {
+            if (persistencePermits == null) {
+                return call.publishOn(persistenceScheduler);
+            }
+            if (!persistencePermits.tryAcquire()) {
+                persistenceRejected.increment();
+                return Mono.error(new RejectedExecutionException("Saga persistence queue is full"));
+            }
+            return call
+                .publishOn(persistenceScheduler)
+                .doFinally(signal -> persistencePermits.release());
+        });
+    }
+    
+    private <T> Function<Mono<T>, Mono<T>> recordStep(String step, UUID orderId, int itemCount) {
+        return call -> {
+            SagaStepEvent event = SagaStepEvent.start(step, orderId, itemCount);
+            return call
+                .timeout(stepTimeout)
+                .doOnSuccess(response -> event.finish("success"))
+                .doOnError(error -> event.finish("error"));
+        };
+    }
+    
     /**
      * Handle saga failure
      */
-    private void handleSagaFailure(Order order, String reason) {
-        logger.error("Saga failed for order: {}, reason: {}", order.getId(), reason);
-        
-        // Update order status
-        order.setStatus(OrderStatus.failed);
-        order.setSagaState(SagaState.failed);
-        orderRepository.save(order);
-        
-        // Publish order failed event
-        publishEvent(new OrderFailedEvent(
-            order.getId(),
-            order.getUserId(),
-            reason,
-            SagaState.failed
-        ));
-        
-        // Send failure notification
-        sendOrderNotification(order, "Order failed: " + reason);
+    private boolean handleSagaFailure(Order order, String reason) {
+        return handleSagaFailure(order.getId(), order.getUserId(), reason);
+    }
+    
+    /**
+     * @return whether the order moved to failed
+     */
+    private boolean handleSagaFailure(UUID orderId, UUID userId, String reason) {
+        QueryScope scope = queryStats.open("saga", "SagaFailure");
+        try (LogContext context = LogContext.open(orderId, "SagaFailure")) {
+            logger.error("Saga failed, reason: {}", reason);
+            
+            // Update order status, unless another handler already finished the order
+            Transition transition;
+            try {
+                transition = transition(orderId, OrderStatus.failed, SagaState.failed);
+            } finally {
+                sagaEnded(orderId);
+            }
+            if (transition == null || !transition.isApplied()) {
+                logger.warn("Order saga failed but the order is {}",
+                    transition != null ? "already " + transition.getPreviousStatus() : "missing");
+                return false;
+            }
+            
+            // Publish order failed event
+            publishEvent(new OrderFailedEvent(
+                orderId,
+                userId,
+                reason,
+                SagaState.failed
+            ));
+            
+            // Send failure notification
+            sendOrderNotification(orderId, userId, -1, "Order failed: " + reason);
+            return true;
+        } finally {
+            queryStats.close(scope);
+        }
+    }
+    
+    /**
+     * Apply a saga transition and publish its status change in one transaction, so
+     * the status change listeners, such as the revenue rollups, commit with it. The
+     * transition is fenced by the lease of the order's saga partition: once another
+     * replica claimed it, this replica's transitions no longer apply.
+     *
+     * @return the outcome, or null if the order does not exist
+     */
+    private Transition transition(UUID orderId, OrderStatus status, SagaState sagaState) {
+        return transactionTemplate.execute(tx -> {
+            Transition transition = orderTransitionRepository.transition(
+                orderId, status, sagaState, sagaPartitions.leaseOf(orderId));
+            if (transition != null && !transition.isLeaseHeld()) {
+                logger.warn("Saga partition {} is no longer leased to this replica, leaving the order to its owner",
+                    sagaPartitions.partitionOf(orderId));
+            }
+            if (transition != null && transition.isApplied()) {
+                eventPublisher.publishEvent(
+                    OrderStatusChangedEvent.of(transition.getOrder().getOrder(), transition.getPreviousStatus()));
+            }
+            return transition;
+        });
+    }
+    
+    /**
+     * Forget a saga that takes no further steps, so it stops holding admission
+     * capacity and its partition can be handed over
+     */
+    private void sagaEnded(UUID orderId) {
+        admissionGate.sagaFinished(orderId);
+        sagaPartitions.finished(orderId);
     }
     
     /**
-     * Publish event (in a real implementation, this would use an event bus)
+     * Count transport errors and 5xx responses towards the downstream circuit.
+     * Business rejections (4xx) mean the downstream is healthy.
+     */
+    private void recordDownstreamError(Throwable error) {
+        if (error instanceof WebClientRequestException || error instanceof TimeoutException
+                || (error instanceof WebClientResponseException responseError
+                    && responseError.getStatusCode().is5xxServerError())) {
+            admissionGate.downstreamFailed();
+        } else if (!(error instanceof RejectedExecutionException)) {
+            admissionGate.downstreamSucceeded();
+        }
+    }
+    
+    /**
+     * Publish event to the saga lane of its order, so the events of one order are
+     * handled in order; without the event bus it is handled synchronously
      */
     private void publishEvent(OrderEvent event) {
-        // In a real implementation, this would publish to an event bus like Kafka
-        // For now, we'll handle the event synchronously
-        handleEvent(event);
+        if (eventBus != null) {
+            eventBus.publish(event.getOrderId(), event);
+        } else {
+            handleEvent(event);
+        }
     }
     
     /**
      * Handle event based on type
      */
     private void handleEvent(OrderEvent event) {
-        switch (event.getEventType()) {
-            case "InventoryReserved":
-                handleInventoryReserved((InventoryReservedEvent) event);
-                break;
-            case "InventoryReservationFailed":
-                handleInventoryReservationFailed((InventoryReservationFailedEvent) event);
-                break;
-            case "PaymentProcessed":
-                handlePaymentProcessed((PaymentProcessedEvent) event);
-                break;
-            case "PaymentFailed":
-                handlePaymentFailed((PaymentFailedEvent) event);
-                break;
-            case "OrderCompleted":
-                handleOrderCompleted((OrderCompletedEvent) event);
-                break;
-            default:
-                logger.warn("Unknown event type: {}", event.getEventType());
-        }
+        // Each saga step is counted as its own unit of JDBC work and logged with its order and step
+        queryStats.run("saga", event.getEventType(), () -> {
+            try (LogContext context = LogContext.open(event.getOrderId(), event.getEventType())) {
+                switch (event.getEventType()) {
+                    case "InventoryReserved":
+                        handleInventoryReserved((InventoryReservedEvent) event);
+                        break;
+                    case "InventoryReservationFailed":
+                        handleInventoryReservationFailed((InventoryReservationFailedEvent) event);
+                        break;
+                    case "PaymentProcessed":
+                        handlePaymentProcessed((PaymentProcessedEvent) event);
+                        break;
+                    case "PaymentFailed":
+                        handlePaymentFailed((PaymentFailedEvent) event);
+                        break;
+                    case "OrderCompleted":
+                        handleOrderCompleted((OrderCompletedEvent) event);
+                        break;
+                    default:
+                        logger.warn("Unknown event type: {}", event.getEventType());
+                }
+            } catch (RuntimeException e) {
+                // A step that throws starts no further step, so nothing else would end the saga
+                logger.error("Saga step {} failed {}", event.getEventType(), keyValue(ORDER_ID, event.getOrderId()), e);
+                handleSagaFailure(event.getOrderId(), event.getUserId(),
+                    event.getEventType() + " handling failed: " + e.getMessage());
+            }
+        });
     }
     
     // Request/Response classes
@@ -429,6 +940,49 @@ public class SagaOrchestrator {
         public void setPaymentMethod(String paymentMethod) { this.paymentMethod = paymentMethod; }
     }
     
+    public static class PaymentRefundRequest {
+        private UUID paymentId;
+        private String reason;
+        
+        public PaymentRefundRequest() {}
+        public PaymentRefundRequest(UUID paymentId, String reason) {
+            this.paymentId = paymentId;
+            this.reason = reason;
+        }
+        
+        public UUID getPaymentId() { return paymentId; }
+        public void setPaymentId(UUID paymentId) { this.paymentId = paymentId; }
+        public String getReason() { return reason; }
+        public void setReason(String reason) { this.reason = reason; }
+    }
+    
+    public static class OrderPaymentsResponse {
+        private UUID orderId;
+        private java.util.List<PaymentSummary> payments;
+        
+        public UUID getOrderId() { return orderId; }
+        public void setOrderId(UUID orderId) { this.orderId = orderId; }
+        public java.util.List<PaymentSummary> getPayments() { return payments; }
+        public void setPayments(java.util.List<PaymentSummary> payments) { this.payments = payments; }
+    }
+    
+    public static class PaymentSummary {
+        private UUID paymentId;
+        private java.math.BigDecimal amount;
+        private String status;
+        
+        public UUID getPaymentId() { return paymentId; }
+        public void setPaymentId(UUID paymentId) { this.paymentId = paymentId; }
+        public java.math.BigDecimal getAmount() { return amount; }
+        public void setAmount(java.math.BigDecimal amount) { this.amount = amount; }
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+        
+        boolean isSuccessful() { return "success".equals(status); }
+        /** Refunds are recorded as payments of a negative amount */
+        boolean isRefund() { return amount != null && amount.signum() < 0; }
+    }
+    
     public static class PaymentResponse {
         private UUID paymentId;
         private java.math.BigDecimal amount;
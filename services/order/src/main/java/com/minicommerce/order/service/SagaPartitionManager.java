@@ -0,0 +1,305 @@
+package com.minicommerce.order.service;
+
+import com.minicommerce.order.repository.SagaLeaseRepository;
+import com.minicommerce.order.repository.SagaLeaseRepository.Lease;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splits saga ownership between order-service replicas. Orders hash into a fixed
+ * number of partitions and each partition is leased to one replica, which alone
+ * drives and recovers the sagas in it. Every heartbeat renews the leases held and
+ * moves towards an even share: surplus partitions stop taking new sagas, are
+ * released once their in-flight sagas finish, and are claimed by replicas below
+ * their share. Leases of a replica that stops heartbeating expire and are taken
+ * over, together with the sagas it left unfinished. Each claim starts a new lease
+ * epoch, and saga transitions only apply under the current one, so a replica that
+ * lost a lease without noticing cannot move the orders of the partition any more.
+ */
+@Service
+public class SagaPartitionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(SagaPartitionManager.class);
+
+    @Autowired
+    private SagaLeaseRepository sagaLeaseRepository;
+
+    private final boolean enabled;
+    private final int partitions;
+    private final long leaseTtlMillis;
+    private final long pickupDelayMillis;
+    private final int pickupBatch;
+    private final long sagaTimeoutNanos;
+    private final String nodeId;
+
+    /** Owned partitions and the leases they are held under */
+    private final Map<Integer, Lease> owned = new ConcurrentHashMap<>();
+    private final Set<Integer> draining = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, Long> inFlightSagas = new ConcurrentHashMap<>();
+    private final long sagaTimeoutMillis;
+    private final Counter pickedUp;
+    private final Counter stalled;
+
+    public SagaPartitionManager(MeterRegistry meterRegistry,
+                                @Value("${saga.enabled:false}") boolean enabled,
+                                @Value("${saga.partitions.count:64}") int partitions,
+                                @Value("${saga.partitions.lease-ttl-ms:15000}") long leaseTtlMillis,
+                                @Value("${saga.partitions.pickup-delay-ms:2000}") long pickupDelayMillis,
+                                @Value("${saga.partitions.pickup-batch:100}") int pickupBatch,
+                                @Value("${saga.timeout:300000}") long sagaTimeoutMillis) {
+        this.enabled = enabled;
+        this.partitions = Math.max(partitions, 1);
+        this.leaseTtlMillis = leaseTtlMillis;
+        this.pickupDelayMillis = pickupDelayMillis;
+        this.pickupBatch = pickupBatch;
+        this.sagaTimeoutMillis = sagaTimeoutMillis;
+        this.sagaTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sagaTimeoutMillis);
+        this.nodeId = createNodeId();
+
+        Gauge.builder("order.saga.partitions.owned", owned, Map::size)
+            .description("Saga partitions leased by this replica")
+            .register(meterRegistry);
+        Gauge.builder("order.saga.partitions.draining", draining, Set::size)
+            .description("Owned saga partitions waiting for their sagas to finish before release")
+            .register(meterRegistry);
+        this.pickedUp = Counter.builder("order.saga.picked-up")
+            .description("Sagas started by partition pickup rather than by the replica that created the order")
+            .register(meterRegistry);
+        this.stalled = Counter.builder("order.saga.stalled")
+            .description("Sagas found processing for longer than the saga timeout, to be failed and compensated")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Saga partition of an order, from the low 32 bits of its id
+     */
+    public int partitionOf(UUID orderId) {
+        return Math.floorMod((int) orderId.getLeastSignificantBits(), partitions);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (enabled) {
+            sagaLeaseRepository.createPartitions(partitions);
+            logger.info("Saga partition node {} joining with {} partitions", nodeId, partitions);
+        }
+    }
+
+    /**
+     * Register a saga about to start on this replica
+     *
+     * @return false if another replica owns the order's partition, the partition is
+     *     being handed over, or the saga is already running here
+     */
+    public boolean begin(UUID orderId) {
+        if (!enabled) {
+            return true;
+        }
+        int partition = partitionOf(orderId);
+        if (!owned.containsKey(partition) || draining.contains(partition)) {
+            return false;
+        }
+        long now = System.nanoTime();
+        Long startedAt = inFlightSagas.putIfAbsent(orderId, now);
+        // A saga that never reported completion may be started again after the saga timeout,
+        // which only goes ahead if the order is still pending, see SagaOrchestrator#startOrderSaga
+        return startedAt == null || (now - startedAt > sagaTimeoutNanos && inFlightSagas.replace(orderId, startedAt, now));
+    }
+
+    /**
+     * Lease to fence the saga transitions of an order with, or null when partitioning
+     * is off. For a partition this replica does not own, the lease is for epoch 0,
+     * which no owner holds since every claim increments the epoch.
+     */
+    public Lease leaseOf(UUID orderId) {
+        if (!enabled) {
+            return null;
+        }
+        int partition = partitionOf(orderId);
+        Lease lease = owned.get(partition);
+        return lease != null ? lease : new Lease(nodeId, partition, 0);
+    }
+
+    public void finished(UUID orderId) {
+        inFlightSagas.remove(orderId);
+    }
+
+    /**
+     * Pending sagas in owned partitions that are not running on this replica: orders
+     * created on a replica that does not own them, and orders whose replica stopped
+     * before starting their saga. A started saga has moved its order to processing,
+     * so it is never picked up and run a second time.
+     */
+    public List<UUID> pendingSagas() {
+        Set<Integer> active = new TreeSet<>(owned.keySet());
+        active.removeAll(draining);
+        if (active.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<UUID> pending = new ArrayList<>();
+        for (UUID orderId : sagaLeaseRepository.findPendingSagas(partitions, active, pickupDelayMillis, pickupBatch)) {
+            if (!inFlightSagas.containsKey(orderId)) {
+                pending.add(orderId);
+            }
+        }
+        pickedUp.increment(pending.size());
+        return pending;
+    }
+
+    /**
+     * Sagas in owned partitions that have been processing for longer than the saga
+     * timeout and are not running on this replica: started by a replica that stopped
+     * or lost the partition before finishing them. Sagas running here past the
+     * timeout are included, their steps having timed out long before.
+     */
+    public List<UUID> stalledSagas() {
+        Set<Integer> active = new TreeSet<>(owned.keySet());
+        active.removeAll(draining);
+        if (active.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long now = System.nanoTime();
+        List<UUID> stalledSagas = new ArrayList<>();
+        for (UUID orderId : sagaLeaseRepository.findStalledSagas(partitions, active, sagaTimeoutMillis, pickupBatch)) {
+            Long startedAt = inFlightSagas.get(orderId);
+            if (startedAt == null || now - startedAt > sagaTimeoutNanos) {
+                stalledSagas.add(orderId);
+            }
+        }
+        stalled.increment(stalledSagas.size());
+        return stalledSagas;
+    }
+
+    @Scheduled(fixedDelayString = "${saga.partitions.heartbeat-ms:5000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int liveNodes = sagaLeaseRepository.heartbeat(nodeId, leaseTtlMillis);
+            Map<Integer, Lease> renewed = new HashMap<>();
+            for (Lease lease : sagaLeaseRepository.renew(nodeId, leaseTtlMillis)) {
+                renewed.put(lease.getPartition(), lease);
+            }
+            if (owned.keySet().retainAll(renewed.keySet())) {
+                logger.warn("Saga partition leases expired before renewal, now owning {}", owned.size());
+            }
+            owned.replaceAll((partition, lease) -> renewed.get(partition));
+            draining.retainAll(owned.keySet());
+
+            int share = (partitions + liveNodes - 1) / liveNodes;
+            startDraining(owned.size() - share);
+            releaseDrained();
+
+            int missing = share - owned.size();
+            if (missing > 0) {
+                List<Integer> claimed = new ArrayList<>();
+                for (Lease lease : sagaLeaseRepository.claim(nodeId, partitions, missing, leaseTtlMillis)) {
+                    owned.put(lease.getPartition(), lease);
+                    claimed.add(lease.getPartition());
+                }
+                if (!claimed.isEmpty()) {
+                    logger.info("Claimed saga partitions {}, now owning {} of {} with {} live nodes",
+                        claimed, owned.size(), partitions, liveNodes);
+                }
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Saga partition heartbeat failed", e);
+        }
+    }
+
+    private void startDraining(int surplus) {
+        int toDrain = surplus - draining.size();
+        if (toDrain <= 0) {
+            return;
+        }
+        for (Integer partition : new TreeSet<>(owned.keySet()).descendingSet()) {
+            if (toDrain == 0) {
+                break;
+            }
+            if (draining.add(partition)) {
+                toDrain--;
+            }
+        }
+        logger.info("Handing over saga partitions {}", draining);
+    }
+
+    private void releaseDrained() {
+        if (draining.isEmpty()) {
+            return;
+        }
+        long cutoff = System.nanoTime() - sagaTimeoutNanos;
+        inFlightSagas.values().removeIf(startedAt -> startedAt < cutoff);
+        Set<Integer> busy = new TreeSet<>();
+        for (UUID orderId : inFlightSagas.keySet()) {
+            busy.add(partitionOf(orderId));
+        }
+        List<Integer> drained = new ArrayList<>();
+        for (Integer partition : draining) {
+            if (!busy.contains(partition)) {
+                drained.add(partition);
+            }
+        }
+        if (!drained.isEmpty()) {
+            sagaLeaseRepository.release(nodeId, drained);
+            owned.keySet().removeAll(drained);
+            draining.removeAll(drained);
+            logger.info("Released saga partitions {}, now owning {}", drained, owned.size());
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            sagaLeaseRepository.leave(nodeId);
+            logger.info("Saga partition node {} left, released {} partitions", nodeId, owned.size());
+        } catch (DataAccessException e) {
+            logger.warn("Could not release saga partitions, they will expire after {} ms", leaseTtlMillis, e);
+        }
+        owned.clear();
+        draining.clear();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String createNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + "-" + ManagementFactory.getRuntimeMXBean().getPid() + "-"
+            + Integer.toHexString(ThreadLocalRandom.current().nextInt(0x10000));
+    }
+}
@@ -0,0 +1,129 @@
+package com.minicommerce.order.service;
+
+import com.minicommerce.order.dto.OrderItemDTO;
+import com.minicommerce.order.event.OrderStatusChangedEvent;
+import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.repository.OrderProjectionRepository;
+import com.minicommerce.order.trending.SlidingWindowSketch;
+import com.minicommerce.order.trending.SlidingWindowSketch.HeavyHitter;
+import com.minicommerce.order.trending.TrendingCheckpoints;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Approximate top-selling products over the last minute, hour and day,
+ * fed from orders as their saga completes, so failed and cancelled orders never count.
+ */
+@Service
+public class TrendingProductsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingProductsService.class);
+
+    private final boolean enabled;
+    private final Path checkpointPath;
+    private final Map<String, SlidingWindowSketch> windows = new LinkedHashMap<>();
+
+    @Autowired
+    private OrderProjectionRepository orderProjectionRepository;
+
+    public TrendingProductsService(@Value("${order.trending.enabled:true}") boolean enabled,
+                                   @Value("${order.trending.sketch-width:1024}") int width,
+                                   @Value("${order.trending.sketch-depth:4}") int depth,
+                                   @Value("${order.trending.candidates:200}") int candidates,
+                                   @Value("${order.trending.checkpoint-path:${java.io.tmpdir}/order-trending.ckpt}") String checkpointPath) {
+        this.enabled = enabled;
+        this.checkpointPath = Path.of(checkpointPath);
+        addWindow("1m", TimeUnit.SECONDS.toMillis(10), 6, width, depth, candidates);
+        addWindow("1h", TimeUnit.MINUTES.toMillis(1), 60, width, depth, candidates);
+        addWindow("24h", TimeUnit.HOURS.toMillis(1), 24, width, depth, candidates);
+    }
+
+    private void addWindow(String name, long bucketMillis, int buckets, int width, int depth, int candidates) {
+        windows.put(name, new SlidingWindowSketch(name, bucketMillis, buckets, width, depth, candidates));
+    }
+
+    /**
+     * Count the items of an order once its completion has committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (!enabled || event.getStatus() != OrderStatus.completed || event.getPreviousStatus() == OrderStatus.completed) {
+            return;
+        }
+        record(orderProjectionRepository.findItems(event.getOrderId()));
+    }
+
+    /**
+     * Count the items of a completed order in every window
+     */
+    public void record(List<OrderItemDTO> items) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (OrderItemDTO item : items) {
+            long revenueCents = toCents(item.getTotalPrice());
+            for (SlidingWindowSketch window : windows.values()) {
+                window.add(now, item.getProductId(), item.getProductName(), item.getQuantity(), revenueCents);
+            }
+        }
+    }
+
+    /**
+     * Top products by approximate units sold in the given window
+     */
+    public List<HeavyHitter> top(String window, int limit) {
+        SlidingWindowSketch sketch = windows.get(window);
+        if (sketch == null) {
+            throw new IllegalArgumentException("Unknown window: " + window + ", expected one of " + windows.keySet());
+        }
+        return sketch.top(System.currentTimeMillis(), limit);
+    }
+
+    @PostConstruct
+    public void restore() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            if (TrendingCheckpoints.read(checkpointPath, windows.values())) {
+                logger.info("Restored trending products from checkpoint: {}", checkpointPath);
+            }
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable trending checkpoint: {}", checkpointPath, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${order.trending.checkpoint-interval-ms:60000}")
+    @PreDestroy
+    public void checkpoint() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            TrendingCheckpoints.write(checkpointPath, windows.values());
+        } catch (IOException e) {
+            logger.error("Failed to write trending checkpoint: {}", checkpointPath, e);
+        }
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+}
@@ -0,0 +1,185 @@
+package com.minicommerce.order.trending;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min sketch of units sold and revenue per product, plus a bounded set of
+ * candidate heavy hitters.
+ *
+ * Updates are lock-free: counters are atomic adds, and candidate pruning is
+ * skipped by any thread that finds another one already pruning.
+ */
+public class CountMinTopK {
+
+    private final long epoch;
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray revenueCents;
+    private final Map<UUID, String> candidates = new ConcurrentHashMap<>();
+    private final AtomicBoolean pruning = new AtomicBoolean();
+
+    /**
+     * @param epoch    time bucket this sketch covers
+     * @param width    counters per row, rounded up to a power of two
+     * @param depth    number of independent rows
+     * @param capacity candidates retained after pruning
+     */
+    public CountMinTopK(long epoch, int width, int depth, int capacity) {
+        this.epoch = epoch;
+        this.width = Integer.highestOneBit(Math.max(width - 1, 1)) << 1;
+        this.depth = depth;
+        this.capacity = capacity;
+        this.counts = new AtomicLongArray(this.width * depth);
+        this.revenueCents = new AtomicLongArray(this.width * depth);
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public void add(UUID productId, String productName, long quantity, long revenue) {
+        long hash = hash(productId);
+        for (int row = 0; row < depth; row++) {
+            int index = index(row, hash);
+            counts.addAndGet(index, quantity);
+            revenueCents.addAndGet(index, revenue);
+        }
+
+        if (!candidates.containsKey(productId)) {
+            candidates.putIfAbsent(productId, productName != null ? productName : "");
+            if (candidates.size() > capacity * 2) {
+                prune();
+            }
+        }
+    }
+
+    public long estimateCount(UUID productId) {
+        return estimate(counts, productId);
+    }
+
+    public long estimateRevenueCents(UUID productId) {
+        return estimate(revenueCents, productId);
+    }
+
+    public Set<Map.Entry<UUID, String>> candidates() {
+        return candidates.entrySet();
+    }
+
+    /**
+     * Drop all but the {@code capacity} highest-count candidates. Evicted products
+     * keep their counters and return as candidates on their next update.
+     */
+    private void prune() {
+        if (!pruning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (candidates.size() <= capacity) {
+                return;
+            }
+            long threshold = candidates.keySet().stream()
+                .mapToLong(this::estimateCount)
+                .sorted()
+                .skip(candidates.size() - capacity)
+                .findFirst()
+                .orElse(0);
+            candidates.keySet().removeIf(productId -> estimateCount(productId) < threshold);
+        } finally {
+            pruning.set(false);
+        }
+    }
+
+    private long estimate(AtomicLongArray counters, UUID productId) {
+        long hash = hash(productId);
+        long min = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters.get(index(row, hash)));
+        }
+        return min;
+    }
+
+    // Rows are hashed independently so products sharing a counter in one row rarely share all of them
+    private int index(int row, long hash) {
+        return row * width + (int) (mix(hash + (row + 1) * 0x9e3779b97f4a7c15L) & (width - 1));
+    }
+
+    private static long hash(UUID productId) {
+        return mix(productId.getMostSignificantBits() ^ mix(productId.getLeastSignificantBits()));
+    }
+
+    // MurmurHash3 64-bit finalizer
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    // Checkpointing
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(epoch);
+        out.writeInt(width);
+        out.writeInt(depth);
+        for (int i = 0; i < counts.length(); i++) {
+            out.writeLong(counts.get(i));
+        }
+        for (int i = 0; i < revenueCents.length(); i++) {
+            out.writeLong(revenueCents.get(i));
+        }
+        Map<UUID, String> snapshot = Map.copyOf(candidates);
+        out.writeInt(snapshot.size());
+        for (Map.Entry<UUID, String> candidate : snapshot.entrySet()) {
+            out.writeLong(candidate.getKey().getMostSignificantBits());
+            out.writeLong(candidate.getKey().getLeastSignificantBits());
+            out.writeUTF(candidate.getValue());
+        }
+    }
+
+    /**
+     * Read a sketch written by {@link #writeTo}, or return null if it was written
+     * with different dimensions and cannot be reused.
+     */
+    static CountMinTopK readFrom(DataInputStream in, int width, int depth, int capacity) throws IOException {
+        long epoch = in.readLong();
+        int storedWidth = in.readInt();
+        int storedDepth = in.readInt();
+        CountMinTopK sketch = new CountMinTopK(epoch, width, depth, capacity);
+        boolean compatible = storedWidth == sketch.width && storedDepth == sketch.depth;
+
+        int cells = storedWidth * storedDepth;
+        for (int i = 0; i < cells; i++) {
+            long value = in.readLong();
+            if (compatible) {
+                sketch.counts.set(i, value);
+            }
+        }
+        for (int i = 0; i < cells; i++) {
+            long value = in.readLong();
+            if (compatible) {
+                sketch.revenueCents.set(i, value);
+            }
+        }
+        int candidateCount = in.readInt();
+        for (int i = 0; i < candidateCount; i++) {
+            UUID productId = new UUID(in.readLong(), in.readLong());
+            String productName = in.readUTF();
+            if (compatible) {
+                sketch.candidates.put(productId, productName);
+            }
+        }
+        return compatible ? sketch : null;
+    }
+}
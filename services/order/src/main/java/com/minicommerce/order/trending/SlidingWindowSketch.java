@@ -0,0 +1,146 @@
+package com.minicommerce.order.trending;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Heavy hitters over a sliding time window, kept as a ring of per-bucket sketches.
+ * The window slides one bucket at a time; a stale bucket is replaced with a
+ * fresh sketch by compare-and-set the first time it is written to again.
+ */
+public class SlidingWindowSketch {
+
+    private final String name;
+    private final long bucketMillis;
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final AtomicReferenceArray<CountMinTopK> ring;
+
+    public SlidingWindowSketch(String name, long bucketMillis, int buckets, int width, int depth, int capacity) {
+        this.name = name;
+        this.bucketMillis = bucketMillis;
+        this.width = width;
+        this.depth = depth;
+        this.capacity = capacity;
+        this.ring = new AtomicReferenceArray<>(buckets);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void add(long timestampMillis, UUID productId, String productName, long quantity, long revenueCents) {
+        bucketFor(timestampMillis / bucketMillis).add(productId, productName, quantity, revenueCents);
+    }
+
+    /**
+     * Top products by estimated units sold over the buckets covering the window ending at {@code nowMillis}
+     */
+    public List<HeavyHitter> top(long nowMillis, int limit) {
+        long currentEpoch = nowMillis / bucketMillis;
+        List<CountMinTopK> live = new ArrayList<>(ring.length());
+        for (int slot = 0; slot < ring.length(); slot++) {
+            CountMinTopK bucket = ring.get(slot);
+            if (bucket != null && isLive(bucket.getEpoch(), currentEpoch)) {
+                live.add(bucket);
+            }
+        }
+
+        Map<UUID, String> candidates = new HashMap<>();
+        for (CountMinTopK bucket : live) {
+            for (Map.Entry<UUID, String> candidate : bucket.candidates()) {
+                candidates.putIfAbsent(candidate.getKey(), candidate.getValue());
+            }
+        }
+
+        List<HeavyHitter> hitters = new ArrayList<>(candidates.size());
+        for (Map.Entry<UUID, String> candidate : candidates.entrySet()) {
+            long count = 0;
+            long revenue = 0;
+            for (CountMinTopK bucket : live) {
+                count += bucket.estimateCount(candidate.getKey());
+                revenue += bucket.estimateRevenueCents(candidate.getKey());
+            }
+            hitters.add(new HeavyHitter(candidate.getKey(), candidate.getValue(), count, revenue));
+        }
+        hitters.sort(Comparator.comparingLong(HeavyHitter::getCount).reversed());
+        return hitters.size() > limit ? new ArrayList<>(hitters.subList(0, limit)) : hitters;
+    }
+
+    private CountMinTopK bucketFor(long epoch) {
+        int slot = (int) Math.floorMod(epoch, (long) ring.length());
+        while (true) {
+            CountMinTopK bucket = ring.get(slot);
+            if (bucket != null && bucket.getEpoch() >= epoch) {
+                // A late write for an already recycled slot lands in the newer bucket
+                return bucket;
+            }
+            CountMinTopK fresh = new CountMinTopK(epoch, width, depth, capacity);
+            if (ring.compareAndSet(slot, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private boolean isLive(long bucketEpoch, long currentEpoch) {
+        return bucketEpoch <= currentEpoch && bucketEpoch > currentEpoch - ring.length();
+    }
+
+    // Checkpointing
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeUTF(name);
+        out.writeInt(ring.length());
+        for (int slot = 0; slot < ring.length(); slot++) {
+            CountMinTopK bucket = ring.get(slot);
+            out.writeBoolean(bucket != null);
+            if (bucket != null) {
+                bucket.writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * Restore buckets written by {@link #writeTo}. Buckets that have since left
+     * the window are harmless: they are skipped on read and replaced on write.
+     */
+    void readFrom(DataInputStream in) throws IOException {
+        int slots = in.readInt();
+        for (int slot = 0; slot < slots; slot++) {
+            if (in.readBoolean()) {
+                CountMinTopK bucket = CountMinTopK.readFrom(in, width, depth, capacity);
+                if (bucket != null && slots == ring.length()) {
+                    ring.set(slot, bucket);
+                }
+            }
+        }
+    }
+
+    public static class HeavyHitter {
+        private final UUID productId;
+        private final String productName;
+        private final long count;
+        private final long revenueCents;
+
+        public HeavyHitter(UUID productId, String productName, long count, long revenueCents) {
+            this.productId = productId;
+            this.productName = productName;
+            this.count = count;
+            this.revenueCents = revenueCents;
+        }
+
+        public UUID getProductId() { return productId; }
+        public String getProductName() { return productName; }
+        public long getCount() { return count; }
+        public long getRevenueCents() { return revenueCents; }
+    }
+}
@@ -0,0 +1,74 @@
+package com.minicommerce.order.trending;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Binary checkpoint file holding every window's buckets.
+ */
+public final class TrendingCheckpoints {
+
+    private static final int MAGIC = 0x54524e44; // "TRND"
+    private static final int FORMAT_VERSION = 1;
+
+    private TrendingCheckpoints() {}
+
+    /**
+     * Write all windows to {@code file}, replacing it atomically.
+     */
+    public static void write(Path file, Collection<SlidingWindowSketch> windows) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(windows.size());
+            for (SlidingWindowSketch window : windows) {
+                window.writeTo(out);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load windows from {@code file} into the matching windows by name.
+     *
+     * @return false if there was no checkpoint to restore
+     */
+    public static boolean read(Path file, Collection<SlidingWindowSketch> windows) throws IOException {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        Map<String, SlidingWindowSketch> byName = windows.stream()
+            .collect(Collectors.toMap(SlidingWindowSketch::getName, Function.identity()));
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unrecognised trending checkpoint: " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                SlidingWindowSketch window = byName.get(name);
+                if (window == null) {
+                    throw new IOException("Checkpoint contains unknown window: " + name);
+                }
+                window.readFrom(in);
+            }
+        }
+        return true;
+    }
+}
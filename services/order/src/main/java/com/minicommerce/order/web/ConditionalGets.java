@@ -0,0 +1,57 @@
+package com.minicommerce.order.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Weak ETags for order read endpoints and If-None-Match handling with
+ * per-endpoint metrics on how many conditional requests end in 304.
+ */
+@Component
+public class ConditionalGets {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Build a weak ETag from a version validator and the fields/expand parameters,
+     * so different projections of the same order never match each other.
+     */
+    public String etag(String validator, String fields, String expand) {
+        String variant = fields == null && expand == null ? ""
+            : "-" + Integer.toHexString((fields + "|" + expand).hashCode());
+        return "W/\"" + validator + variant + "\"";
+    }
+
+    /**
+     * @return true when the request's If-None-Match matches {@code etag}; the 304
+     *         status and ETag header are then already set and the caller returns null
+     */
+    public boolean checkNotModified(WebRequest request, String endpoint, String etag) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+            count(endpoint, "unconditional");
+            return false;
+        }
+        boolean notModified = request.checkNotModified(etag);
+        count(endpoint, notModified ? "not_modified" : "modified");
+        return notModified;
+    }
+
+    private void count(String endpoint, String outcome) {
+        counters.computeIfAbsent(endpoint + ":" + outcome, key -> Counter.builder("order.http.conditional")
+                .description("Order read requests by If-None-Match outcome")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry))
+            .increment();
+    }
+}
@@ -0,0 +1,207 @@
+package com.minicommerce.order.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.minicommerce.order.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ready-to-send UTF-8 JSON of full order representations, keyed by order id and
+ * checked against the order's ETag so a cached body is never served for another
+ * version. Bounded by total bytes with LRU eviction; bodies can be kept in direct
+ * buffers to keep them out of the heap.
+ */
+@Component
+public class OrderJsonCache {
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final boolean offHeap;
+    private final ObjectMapper objectMapper;
+
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public OrderJsonCache(@Value("${order.json-cache.enabled:true}") boolean enabled,
+                          @Value("${order.json-cache.max-bytes:67108864}") long maxBytes,
+                          @Value("${order.json-cache.off-heap:false}") boolean offHeap,
+                          ObjectMapper objectMapper,
+                          MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap;
+        this.objectMapper = objectMapper;
+
+        this.hits = Counter.builder("order.json_cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("order.json_cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("order.json_cache.evictions").register(meterRegistry);
+        Gauge.builder("order.json_cache.bytes", this, OrderJsonCache::byteCount)
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        Gauge.builder("order.json_cache.entries", this, OrderJsonCache::entryCount)
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Write the cached body of {@code orderId} if it was cached for {@code etag}
+     *
+     * @return false on a miss, leaving the response untouched
+     */
+    public boolean writeIfPresent(UUID orderId, String etag, HttpServletResponse response) throws IOException {
+        Entry entry = lookup(orderId, etag);
+        if (entry == null) {
+            return false;
+        }
+        write(entry, response);
+        return true;
+    }
+
+    /**
+     * @return the cached UTF-8 body of {@code orderId} if it was cached for {@code etag}, otherwise null
+     */
+    public ByteBuffer getBody(UUID orderId, String etag) {
+        Entry entry = lookup(orderId, etag);
+        return entry != null ? entry.body.duplicate() : null;
+    }
+
+    /**
+     * Serialize {@code body}, cache it for {@code etag} and write it to the response
+     */
+    public void put(UUID orderId, String etag, Object body, HttpServletResponse response) throws IOException {
+        write(store(orderId, etag, body), response);
+    }
+
+    /**
+     * Serialize {@code body} and cache it for {@code etag} if caching is enabled
+     *
+     * @return the serialized UTF-8 body
+     */
+    public ByteBuffer putBody(UUID orderId, String etag, Object body) {
+        return store(orderId, etag, body).body.duplicate();
+    }
+
+    private Entry lookup(UUID orderId, String etag) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(orderId);
+        }
+        if (entry == null || !entry.etag.equals(etag)) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    private Entry store(UUID orderId, String etag, Object body) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize order: " + orderId, e);
+        }
+
+        Entry entry = new Entry(etag, offHeap ? ByteBuffer.allocateDirect(json.length).put(json).flip() : ByteBuffer.wrap(json));
+        if (enabled && json.length <= maxBytes / 16) {
+            synchronized (this) {
+                Entry previous = entries.put(orderId, entry);
+                totalBytes += json.length - (previous != null ? previous.size() : 0);
+                evictIfNeeded();
+            }
+        }
+        return entry;
+    }
+
+    /**
+     * Drop an order's body eagerly once it changed; its next read re-caches the new version
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        invalidate(event.getOrderId());
+    }
+
+    public synchronized void invalidate(UUID orderId) {
+        Entry removed = entries.remove(orderId);
+        if (removed != null) {
+            totalBytes -= removed.size();
+        }
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<UUID, Entry>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().getValue().size();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private synchronized long byteCount() {
+        return totalBytes;
+    }
+
+    private synchronized int entryCount() {
+        return entries.size();
+    }
+
+    private static void write(Entry entry, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.ETAG, entry.etag);
+        response.setContentLength(entry.size());
+        writeBody(entry.body, response.getOutputStream());
+    }
+
+    /**
+     * Copy a body returned by this cache to {@code out} without decoding it
+     */
+    public static void writeBody(ByteBuffer body, OutputStream out) throws IOException {
+        if (body.hasArray()) {
+            out.write(body.array(), body.arrayOffset() + body.position(), body.remaining());
+        } else {
+            Channels.newChannel(out).write(body.duplicate());
+        }
+    }
+
+    private static class Entry {
+        private final String etag;
+        private final ByteBuffer body;
+
+        Entry(String etag, ByteBuffer body) {
+            this.etag = etag;
+            this.body = body;
+        }
+
+        int size() {
+            return body.limit();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.minicommerce.order.web;
+
+import com.minicommerce.order.jdbc.QueryScope;
+import com.minicommerce.order.jdbc.QueryStats;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts JDBC work per HTTP request, tagged by method and matched endpoint pattern
+ */
+@Component
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private QueryStats queryStats;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        QueryScope scope = queryStats.open("http", request.getMethod() + " " + request.getRequestURI());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (scope != null) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                scope.setName(request.getMethod() + " " + (pattern != null ? pattern : "unmatched"));
+            }
+            queryStats.close(scope);
+        }
+    }
+}
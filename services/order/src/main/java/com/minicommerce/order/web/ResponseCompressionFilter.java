@@ -0,0 +1,133 @@
+package com.minicommerce.order.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * gzip/deflate compression of large JSON responses from the order read endpoints,
+ * negotiated from Accept-Encoding. Small bodies and event streams pass through.
+ */
+@Component
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private final boolean enabled;
+    private final int minSize;
+    private final MeterRegistry meterRegistry;
+
+    public ResponseCompressionFilter(@Value("${order.http.compression.enabled:true}") boolean enabled,
+                                     @Value("${order.http.compression.min-size:2048}") int minSize,
+                                     MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.minSize = minSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !enabled
+            || !"GET".equals(request.getMethod())
+            || !path.startsWith("/api/orders")
+            || path.endsWith("/events")
+            || negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING)) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        int size = wrapper.getContentSize();
+        String contentType = wrapper.getContentType();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK
+                || size < minSize
+                || contentType == null
+                || !MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType))
+                || wrapper.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        String encoding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(size / 4);
+        try (OutputStream out = "gzip".equals(encoding)
+                ? new GZIPOutputStream(compressed) : new DeflaterOutputStream(compressed)) {
+            out.write(wrapper.getContentAsByteArray());
+        }
+
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setContentLength(compressed.size());
+        compressed.writeTo(response.getOutputStream());
+
+        record(encoding, size, compressed.size());
+    }
+
+    /**
+     * Pick gzip or deflate from an Accept-Encoding header by q-value, preferring
+     * gzip on ties, or null if neither is acceptable
+     */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        String best = null;
+        double bestQuality = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < tokens.length; i++) {
+                String parameter = tokens[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals("*")) {
+                coding = "gzip";
+            }
+            if ((coding.equals("gzip") || coding.equals("deflate"))
+                    && (quality > bestQuality || (quality == bestQuality && coding.equals("gzip")))) {
+                best = coding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    private void record(String encoding, int originalSize, int compressedSize) {
+        Counter.builder("order.http.compression.original")
+            .description("Response bytes before compression")
+            .baseUnit("bytes")
+            .tag("encoding", encoding)
+            .register(meterRegistry)
+            .increment(originalSize);
+        Counter.builder("order.http.compression.saved")
+            .description("Response bytes saved by compression")
+            .baseUnit("bytes")
+            .tag("encoding", encoding)
+            .register(meterRegistry)
+            .increment(originalSize - compressedSize);
+    }
+}
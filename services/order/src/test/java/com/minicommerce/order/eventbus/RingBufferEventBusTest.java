@@ -0,0 +1,171 @@
+package com.minicommerce.order.eventbus;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RingBufferEventBusTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    /** Sequence numbers handled per key, in handling order */
+    private final Map<String, List<Integer>> handled = new ConcurrentHashMap<>();
+    private RingBufferEventBus<Event> bus;
+
+    @AfterEach
+    void close() {
+        if (bus != null) {
+            bus.close();
+        }
+    }
+
+    @Test
+    void eventsOfOneKeyAreHandledInPublishOrder() throws Exception {
+        bus = bus(4, 8, 16, event -> { });
+        int publishers = 4;
+        int keysPerPublisher = 8;
+        int perKey = 1000;
+        // Each publisher takes turns over its own keys, so the events of every key are
+        // interleaved with other keys' and the small rings keep publishers waiting
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < publishers; p++) {
+            int publisher = p;
+            Thread thread = new Thread(() -> {
+                for (int seq = 0; seq < perKey; seq++) {
+                    for (int k = 0; k < keysPerPublisher; k++) {
+                        String key = "order-" + publisher + "-" + k;
+                        bus.publish(key, new Event(key, seq));
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        awaitHandled(publishers * keysPerPublisher * perKey);
+        List<Integer> expected = IntStream.range(0, perKey).boxed().toList();
+        for (int p = 0; p < publishers; p++) {
+            for (int k = 0; k < keysPerPublisher; k++) {
+                assertEquals(expected, handled.get("order-" + p + "-" + k));
+            }
+        }
+    }
+
+    @Test
+    void eventsPublishedByAHandlerIntoItsFullLaneAreHeldInOrder() throws Exception {
+        CountDownLatch laneFull = new CountDownLatch(1);
+        bus = bus(1, 4, 16, event -> {
+            if (event.key.equals("a") && event.seq == 0) {
+                await(laneFull);
+                // The ring holds this event and three of b's, and another publisher waits on it
+                for (int seq = 1; seq <= 6; seq++) {
+                    bus.publish("a", new Event("a", seq));
+                }
+            }
+        });
+        bus.publish("a", new Event("a", 0));
+        Thread other = new Thread(() -> {
+            for (int seq = 0; seq < 100; seq++) {
+                bus.publish("b", new Event("b", seq));
+            }
+        });
+        other.start();
+        awaitLag(4);
+        laneFull.countDown();
+        other.join();
+
+        awaitHandled(107);
+        assertEquals(IntStream.rangeClosed(0, 6).boxed().toList(), handled.get("a"));
+        assertEquals(IntStream.range(0, 100).boxed().toList(), handled.get("b"));
+        assertEquals(6, meterRegistry.get("order.events.overflow").counter().count());
+        assertEquals(0, meterRegistry.get("order.events.errors").counter().count());
+    }
+
+    @Test
+    void handlerPublishesPastTheOverflowLimitAreRejected() throws Exception {
+        List<RuntimeException> rejected = new CopyOnWriteArrayList<>();
+        bus = bus(1, 2, 3, event -> {
+            if (event.key.equals("a") && event.seq == 0) {
+                // The ring holds this event and b's
+                awaitLag(2);
+                for (int seq = 1; seq <= 4; seq++) {
+                    try {
+                        bus.publish("a", new Event("a", seq));
+                    } catch (RuntimeException e) {
+                        rejected.add(e);
+                    }
+                }
+            }
+        });
+        bus.publish("a", new Event("a", 0));
+        bus.publish("b", new Event("b", 0));
+
+        awaitHandled(5);
+        assertEquals(List.of(0, 1, 2, 3), handled.get("a"));
+        assertEquals(1, rejected.size());
+        assertInstanceOf(RejectedExecutionException.class, rejected.get(0));
+        assertEquals(1, meterRegistry.get("order.events.rejected").counter().count());
+    }
+
+    private RingBufferEventBus<Event> bus(int lanes, int bufferSize, int overflowLimit, Consumer<Event> action) {
+        return new RingBufferEventBus<>("test", lanes, bufferSize, overflowLimit, WaitStrategy.yielding, event -> {
+            handled.computeIfAbsent(event.key, key -> new CopyOnWriteArrayList<>()).add(event.seq);
+            action.accept(event);
+        }, meterRegistry);
+    }
+
+    private void awaitHandled(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (handled.values().stream().mapToInt(List::size).sum() < count) {
+            assertTrue(System.nanoTime() < deadline, "handled " + handled);
+            Thread.sleep(1);
+        }
+        Thread.sleep(50);
+        assertEquals(count, handled.values().stream().mapToInt(List::size).sum());
+    }
+
+    private void awaitLag(int events) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("order.events.lag").gauge().value() < events) {
+            assertTrue(System.nanoTime() < deadline, "lane never filled");
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Event {
+        private final String key;
+        private final int seq;
+
+        Event(String key, int seq) {
+            this.key = key;
+            this.seq = seq;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.minicommerce.order.jdbc;
+
+import com.minicommerce.order.jdbc.QueryScope.StatementBudgetExceededException;
+import com.minicommerce.order.web.QueryStatsFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Requests over the statement budget fail under the test profile
+ */
+@SpringBootTest(classes = { QueryStats.class, QueryCountingDataSourcePostProcessor.class, QueryStatsFilter.class,
+    QueryBudgetTest.Config.class }, webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    @Autowired
+    private QueryStatsFilter queryStatsFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${order.jdbc.statement-budget}")
+    private int statementBudget;
+
+    @Test
+    void requestOverBudgetFails() {
+        StatementBudgetExceededException e = assertThrows(StatementBudgetExceededException.class,
+            () -> request("/api/orders/over-budget", statementBudget + 1));
+        assertEquals("http GET /api/orders/over-budget executed " + (statementBudget + 1)
+            + " statements, budget is " + statementBudget, e.getMessage());
+        assertEquals(1, meterRegistry.get("order.jdbc.budget_exceeded")
+            .tag("name", "GET /api/orders/over-budget").counter().count());
+    }
+
+    @Test
+    void requestWithinBudgetSucceeds() throws Exception {
+        request("/api/orders/within-budget", statementBudget);
+        assertEquals(statementBudget, meterRegistry.get("order.jdbc.statements")
+            .tag("name", "GET /api/orders/within-budget").summary().max());
+        assertNull(meterRegistry.find("order.jdbc.budget_exceeded")
+            .tag("name", "GET /api/orders/within-budget").counter());
+    }
+
+    private void request(String path, int statements) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, path);
+        queryStatsFilter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            for (int i = 0; i < statements; i++) {
+                jdbcTemplate.execute("SELECT " + i);
+            }
+        });
+    }
+
+    @Configuration
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        DataSource dataSource() throws Exception {
+            DataSource dataSource = mock(DataSource.class);
+            Connection connection = mock(Connection.class);
+            when(dataSource.getConnection()).thenAnswer(invocation -> connection);
+            when(connection.createStatement()).thenAnswer(invocation -> mock(Statement.class));
+            when(connection.prepareStatement(anyString())).thenThrow(new UnsupportedOperationException());
+            return dataSource;
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.minicommerce.order.service;
+
+import com.minicommerce.order.dto.OrderDTO;
+import com.minicommerce.order.jdbc.QueryCountingDataSourcePostProcessor;
+import com.minicommerce.order.jdbc.QueryStats;
+import com.minicommerce.order.model.Order;
+import com.minicommerce.order.model.OrderStatus;
+import com.minicommerce.order.model.SagaState;
+import com.minicommerce.order.repository.OrderProjectionRepository.VersionedOrder;
+import com.minicommerce.order.repository.OrderRepository;
+import com.minicommerce.order.repository.OrderTransitionRepository;
+import com.minicommerce.order.repository.OrderTransitionRepository.Transition;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Saga steps against a WebClient whose responses complete on non-blocking threads, as
+ * Reactor Netty's event loops do, with JDBC on such threads failing under the test profile
+ */
+@SpringBootTest(classes = { SagaOrchestrator.class, QueryStats.class, QueryCountingDataSourcePostProcessor.class,
+    SagaOrchestratorThreadsTest.Config.class }, webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    // Without the event bus each step result is handled where it is delivered, the persistence threads
+    properties = "saga.events.enabled=false")
+@ActiveProfiles("test")
+class SagaOrchestratorThreadsTest {
+
+    /** Request paths the stubbed downstream services received */
+    private static final List<String> calls = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private SagaOrchestrator sagaOrchestrator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private OrderRepository orderRepository;
+
+    @MockBean
+    private OrderTransitionRepository orderTransitionRepository;
+
+    @MockBean
+    private InventoryBatchClient inventoryBatchClient;
+
+    @MockBean
+    private InventoryAvailabilityCache inventoryAvailabilityCache;
+
+    @MockBean
+    private AdmissionGate admissionGate;
+
+    @MockBean
+    private SagaPartitionManager sagaPartitions;
+
+    @MockBean
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void jdbcOnEventLoopFails() {
+        CannotGetJdbcConnectionException e = assertThrows(CannotGetJdbcConnectionException.class,
+            () -> Mono.fromRunnable(() -> jdbcTemplate.execute("SELECT 1"))
+                .subscribeOn(Schedulers.parallel())
+                .block());
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+        assertTrue(e.getCause().getMessage().contains("on non-blocking thread parallel-"), e.getCause().getMessage());
+    }
+
+    @Test
+    void sagaStepResultsUseJdbcOffTheEventLoop() {
+        Order order = new Order(UUID.randomUUID(), new BigDecimal("20.10"));
+        order.setId(UUID.randomUUID());
+        order.setStatus(OrderStatus.processing);
+        order.setSagaState(SagaState.orchestrating);
+        when(sagaPartitions.begin(order.getId())).thenReturn(true);
+        // Every repository call runs a statement, so one made on the event loop fails the saga
+        when(orderRepository.findById(order.getId())).thenAnswer(invocation -> {
+            jdbcTemplate.execute("SELECT 1");
+            return Optional.of(order);
+        });
+        when(orderTransitionRepository.transition(eq(order.getId()), any(), any(), any())).thenAnswer(invocation -> {
+            jdbcTemplate.execute("SELECT 1");
+            return applied(order, invocation.getArgument(1));
+        });
+
+        sagaOrchestrator.startOrderSaga(order);
+
+        verify(orderTransitionRepository, timeout(5000))
+            .transition(eq(order.getId()), eq(OrderStatus.completed), eq(SagaState.completed), any());
+        verify(orderTransitionRepository, never())
+            .transition(eq(order.getId()), eq(OrderStatus.failed), any(), any());
+        assertEquals(List.of("/api/inventory/reserve", "/api/payment/process", "/api/inventory/confirm"),
+            List.copyOf(calls).subList(0, 3));
+    }
+
+    private static Transition applied(Order order, OrderStatus status) {
+        order.setStatus(status);
+        VersionedOrder versionedOrder = mock(VersionedOrder.class);
+        when(versionedOrder.getOrder()).thenReturn(new OrderDTO(order));
+        Transition transition = mock(Transition.class);
+        when(transition.isApplied()).thenReturn(true);
+        when(transition.isLeaseHeld()).thenReturn(true);
+        when(transition.getPreviousStatus()).thenReturn(OrderStatus.processing);
+        when(transition.getOrder()).thenReturn(versionedOrder);
+        return transition;
+    }
+
+    @Configuration
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        DataSource dataSource() throws Exception {
+            DataSource dataSource = mock(DataSource.class);
+            Connection connection = mock(Connection.class);
+            when(dataSource.getConnection()).thenAnswer(invocation -> connection);
+            when(connection.createStatement()).thenAnswer(invocation -> mock(Statement.class));
+            return dataSource;
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        /**
+         * Downstream services answering on Reactor's parallel threads, which are
+         * non-blocking like the Netty event loops
+         */
+        @Bean
+        WebClient.Builder webClientBuilder() {
+            return WebClient.builder().exchangeFunction(request -> {
+                String path = request.url().getPath();
+                calls.add(path);
+                String body = switch (path) {
+                    case "/api/inventory/reserve" -> "{\"reservationId\":\"" + UUID.randomUUID() + "\",\"reservations\":[]}";
+                    case "/api/payment/process" ->
+                        "{\"paymentId\":\"" + UUID.randomUUID() + "\",\"amount\":20.10,\"paymentMethod\":\"credit_card\"}";
+                    default -> "";
+                };
+                return Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(body)
+                        .build())
+                    .publishOn(Schedulers.parallel());
+            });
+        }
+    }
+}